@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.3.5"
     id("io.spring.dependency-management") version "1.1.6"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.efficiencynow"
@@ -26,6 +27,8 @@ repositories {
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("com.github.ben-manes.caffeine:caffeine")
     implementation("org.hibernate.validator:hibernate-validator:6.2.0.Final")
     implementation("org.postgresql:postgresql:42.7.2")
     implementation("org.springframework.security:spring-security-crypto:5.7.3")
@@ -39,3 +42,9 @@ dependencies {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Benchmarks em src/jmh/java. Ex.: ./gradlew jmh -PjmhIncludes=AVLTreeBenchmark
+jmh {
+    jmhVersion = "1.37"
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+}
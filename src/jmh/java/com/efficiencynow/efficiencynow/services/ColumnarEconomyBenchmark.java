@@ -0,0 +1,90 @@
+package com.efficiencynow.efficiencynow.services;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara as sobrecargas em colunas de {@link LampEconomyService} e {@link ACEconomyService} com a
+ * chamada dos métodos escalares em um laço, para lotes de mil e cem mil linhas.
+ * <p>
+ * Para conferir se o C2 vetoriza os laços em colunas, execute com {@code -prof perfasm} e procure
+ * instruções vetoriais (por exemplo, {@code vmulpd}) na região mais quente.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarEconomyBenchmark {
+
+    private static final int[] BTUS = {7500, 9000, 12000, 18000};
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private final LampEconomyService lampEconomyService = new LampEconomyService();
+
+    private final ACEconomyService acEconomyService = new ACEconomyService();
+
+    private int[] fluorescent;
+    private int[] incandescent;
+    private int[] halogen;
+
+    private int[] airConditioners;
+    private int[] btu;
+    private double[] temperature;
+
+    private double[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        fluorescent = new int[rows];
+        incandescent = new int[rows];
+        halogen = new int[rows];
+        airConditioners = new int[rows];
+        btu = new int[rows];
+        temperature = new double[rows];
+        output = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            fluorescent[i] = random.nextInt(200);
+            incandescent[i] = random.nextInt(200);
+            halogen[i] = random.nextInt(200);
+            airConditioners[i] = 1 + random.nextInt(20);
+            btu[i] = BTUS[random.nextInt(BTUS.length)];
+            // Meio grau entre 16 e 30 °C.
+            temperature[i] = 16 + random.nextInt(29) * 0.5;
+        }
+    }
+
+    @Benchmark
+    public double[] lampScalarLoop() {
+        for (int i = 0; i < rows; i++) {
+            output[i] = lampEconomyService.calculateTotalEconomy(fluorescent[i], incandescent[i], halogen[i]);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public double[] lampColumnar() {
+        lampEconomyService.calculateTotalEconomy(fluorescent, incandescent, halogen, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] acScalarLoop() {
+        for (int i = 0; i < rows; i++) {
+            output[i] = acEconomyService.calcMonthlyConsumption(airConditioners[i], btu[i], temperature[i]);
+        }
+        return output;
+    }
+
+    @Benchmark
+    public double[] acColumnar() {
+        acEconomyService.calcMonthlyConsumption(airConditioners, btu, temperature, output);
+        return output;
+    }
+}
@@ -0,0 +1,87 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a busca e a inserção iterativas da {@link AVLTree} com a versão recursiva anterior
+ * ({@link RecursiveAVLTree}) em índices de 10 mil, 1 milhão e 10 milhões de usuários.
+ * <p>
+ * As chaves são emails como os do índice de usuários. A inserção substitui o valor de uma chave
+ * existente, o que copia o caminho inteiro da raiz até a folha sem mudar o tamanho da árvore entre
+ * as iterações.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class AVLTreeBenchmark {
+
+    // Número de chaves sorteadas percorridas em ciclo pelas operações; potência de 2 para usar máscara.
+    private static final int PROBES = 1 << 16;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int users;
+
+    private AVLTree<String, Integer> iterative;
+
+    private RecursiveAVLTree<String, Integer> recursive;
+
+    private String[] probes;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> keys = new ArrayList<>(users);
+        List<Integer> values = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            keys.add(email(i));
+            values.add(i);
+        }
+        iterative = new AVLTree<>();
+        iterative.loadSorted(values, i -> keys.get(i));
+        recursive = new RecursiveAVLTree<>();
+        recursive.loadSorted(keys, values);
+
+        Random random = new Random(42);
+        probes = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = keys.get(random.nextInt(users));
+        }
+    }
+
+    @Benchmark
+    public Integer iterativeSearch() {
+        return iterative.search(nextProbe());
+    }
+
+    @Benchmark
+    public Integer recursiveSearch() {
+        return recursive.search(nextProbe());
+    }
+
+    @Benchmark
+    public void iterativeInsert() {
+        iterative.insert(nextProbe(), next);
+    }
+
+    @Benchmark
+    public void recursiveInsert() {
+        recursive.insert(nextProbe(), next);
+    }
+
+    private String nextProbe() {
+        return probes[next++ & (PROBES - 1)];
+    }
+
+    private static String email(int i) {
+        return String.format("user%08d@efficiencynow.com", i);
+    }
+}
@@ -0,0 +1,53 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara {@link PasswordEncoder#validatePassword(String)} com a expressão regular com lookaheads
+ * que ela substitui, recompilada a cada chamada por {@code String.matches} como no código original.
+ * <p>
+ * As entradas longas são adversariais para a expressão: sem letra maiúscula, cada lookahead percorre
+ * a senha inteira e volta caractere a caractere; com um caractere proibido no fim, a classe final
+ * consome tudo e só então falha.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordValidationBenchmark {
+
+    private static final String OLD_PASSWORD_REGEX = "^(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{6,}$";
+
+    @Param({"12", "10000", "1000000"})
+    private int length;
+
+    @Param({"valid", "noUppercase", "invalidLastCharacter"})
+    private String input;
+
+    private String password;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String filler = "a".repeat(Math.max(length - 4, 0));
+        password = switch (input) {
+            case "valid" -> "Aa1@" + filler;
+            case "noUppercase" -> "aa1@" + filler;
+            case "invalidLastCharacter" -> "Aa1@" + filler.substring(1) + "#";
+            default -> throw new IllegalArgumentException(input);
+        };
+    }
+
+    @Benchmark
+    public PasswordEncoder.PasswordRule singlePass() {
+        return PasswordEncoder.validatePassword(password);
+    }
+
+    @Benchmark
+    public boolean lookaheadRegex() {
+        return password.matches(OLD_PASSWORD_REGEX);
+    }
+}
@@ -0,0 +1,143 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cópia da busca e da inserção recursivas da {@link AVLTree} anteriores à versão iterativa, mantida
+ * apenas como referência para o {@link AVLTreeBenchmark}.
+ * <p>
+ * A busca desce recursivamente e compara a chave até duas vezes por nível; a inserção copia o
+ * caminho recursivamente e publica a nova raiz com compare-and-set, como na árvore original.
+ *
+ * @param <K> Tipo da chave, que deve ser comparável.
+ * @param <V> Tipo do valor armazenado na árvore.
+ */
+class RecursiveAVLTree<K extends Comparable<K>, V> {
+
+    private final AtomicReference<Node<K, V>> root = new AtomicReference<>();
+
+    /**
+     * Nó imutável, com a mesma estrutura do nó original (sem o tamanho da subárvore).
+     */
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left, right;
+        final int height;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(left == null ? 0 : left.height, right == null ? 0 : right.height) + 1;
+        }
+    }
+
+    /**
+     * Carrega chaves já ordenadas em uma árvore balanceada. Não existia na árvore original; serve
+     * apenas para montar o estado do benchmark sem milhões de inserções.
+     *
+     * @param keys   As chaves em ordem crescente.
+     * @param values Os valores, na mesma ordem das chaves.
+     */
+    void loadSorted(List<K> keys, List<V> values) {
+        root.set(build(keys, values, 0, keys.size() - 1));
+    }
+
+    private Node<K, V> build(List<K> keys, List<V> values, int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new Node<>(keys.get(mid), values.get(mid), build(keys, values, from, mid - 1), build(keys, values, mid + 1, to));
+    }
+
+    private int height(Node<K, V> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private int getBalance(Node<K, V> node) {
+        return node == null ? 0 : height(node.left) - height(node.right);
+    }
+
+    private Node<K, V> rightRotate(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+    }
+
+    private Node<K, V> leftRotate(K key, V value, Node<K, V> left, Node<K, V> right) {
+        return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+    }
+
+    private Node<K, V> rebalance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int balance = height(left) - height(right);
+        if (balance > 1) {
+            if (getBalance(left) < 0) {
+                left = leftRotate(left.key, left.value, left.left, left.right);
+            }
+            return rightRotate(key, value, left, right);
+        }
+        if (balance < -1) {
+            if (getBalance(right) > 0) {
+                right = rightRotate(right.key, right.value, right.left, right.right);
+            }
+            return leftRotate(key, value, left, right);
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            return rebalance(node.key, node.value, insert(node.left, key, value), node.right);
+        } else if (cmp > 0) {
+            return rebalance(node.key, node.value, node.left, insert(node.right, key, value));
+        } else {
+            return new Node<>(node.key, value, node.left, node.right);
+        }
+    }
+
+    /**
+     * Insere uma chave e valor na árvore. Se a chave já existir, o valor é substituído.
+     *
+     * @param key   A chave a ser inserida.
+     * @param value O valor associado à chave.
+     */
+    void insert(K key, V value) {
+        Node<K, V> current;
+        Node<K, V> updated;
+        do {
+            current = root.get();
+            updated = insert(current, key, value);
+        } while (!root.compareAndSet(current, updated));
+    }
+
+    /**
+     * Procura uma chave na árvore.
+     *
+     * @param key A chave a ser procurada.
+     * @return O valor associado à chave, ou null se a chave não for encontrada.
+     */
+    V search(K key) {
+        return search(root.get(), key);
+    }
+
+    private V search(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+
+        if (key.compareTo(node.key) < 0) {
+            return search(node.left, key);
+        } else if (key.compareTo(node.key) > 0) {
+            return search(node.right, key);
+        } else {
+            return node.value;
+        }
+    }
+}
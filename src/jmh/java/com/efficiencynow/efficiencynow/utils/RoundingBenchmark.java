@@ -0,0 +1,54 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o arredondamento sem alocação de {@link MathUtils#roundToTwoDecimals(double)} com o
+ * arredondamento por {@code BigDecimal.setScale(2, HALF_UP)} que ele substitui.
+ * <p>
+ * Os valores imitam os resultados dos cálculos de economia (custos e percentuais com várias casas
+ * decimais); uma pequena parte cai exatamente em empates, que o caminho rápido repassa ao BigDecimal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoundingBenchmark {
+
+    private static final int VALUES = 1024;
+
+    private final double[] values = new double[VALUES];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < VALUES; i++) {
+            // Um em cada 32 valores é um empate na terceira casa decimal, como 12.345.
+            values[i] = i % 32 == 0 ? random.nextInt(100_000) / 100.0 + 0.005 : random.nextDouble() * 10_000;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void fastPath(Blackhole blackhole) {
+        for (double value : values) {
+            blackhole.consume(MathUtils.roundToTwoDecimals(value));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void bigDecimal(Blackhole blackhole) {
+        for (double value : values) {
+            blackhole.consume(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.efficiencynow.efficiencynow.Exceptions;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
 /**
  * Classe que contém exceções personalizadas para o sistema.
  */
@@ -46,4 +49,19 @@ public class Exceptions {
             super(message);
         }
     }
+
+    /**
+     * Exceção lançada quando o sistema está sobrecarregado e não pode aceitar mais trabalho no momento.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class ServiceOverloadedException extends RuntimeException {
+        /**
+         * Construtor da exceção ServiceOverloadedException.
+         *
+         * @param message Mensagem de erro.
+         */
+        public ServiceOverloadedException(String message) {
+            super(message);
+        }
+    }
 }
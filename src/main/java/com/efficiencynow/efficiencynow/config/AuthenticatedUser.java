@@ -0,0 +1,66 @@
+package com.efficiencynow.efficiencynow.config;
+
+import com.efficiencynow.efficiencynow.utils.UserNode;
+
+import java.util.function.Function;
+
+/**
+ * Usuário autenticado de uma requisição, resolvido uma única vez pelo {@link SessionAuthenticationInterceptor}
+ * e disponível aos controladores como atributo da requisição {@link #REQUEST_ATTRIBUTE}.
+ * <p>
+ * O nó do usuário no índice só é buscado quando solicitado pela primeira vez, de modo que endpoints
+ * que precisam apenas saber que a sessão é válida não pagam por essa busca.
+ */
+public class AuthenticatedUser {
+
+    /**
+     * Nome do atributo da requisição que contém o usuário autenticado.
+     */
+    public static final String REQUEST_ATTRIBUTE = "efficiencynow.authenticatedUser";
+
+    private final String email;
+    private final String sessionToken;
+    private final Function<String, UserNode> userLookup;
+    private UserNode userNode;
+    private boolean userNodeResolved;
+
+    /**
+     * Construtor do usuário autenticado.
+     *
+     * @param email        O email associado à sessão.
+     * @param sessionToken O token da sessão.
+     * @param userLookup   Função que busca o nó do usuário pelo email.
+     */
+    public AuthenticatedUser(String email, String sessionToken, Function<String, UserNode> userLookup) {
+        this.email = email;
+        this.sessionToken = sessionToken;
+        this.userLookup = userLookup;
+    }
+
+    /**
+     * @return O email associado à sessão.
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return O token da sessão.
+     */
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    /**
+     * Obtém o nó do usuário no índice, buscando-o apenas na primeira chamada.
+     *
+     * @return O nó do usuário, ou null se o usuário não existir mais.
+     */
+    public UserNode getUserNode() {
+        if (!userNodeResolved) {
+            userNode = userLookup.apply(email);
+            userNodeResolved = true;
+        }
+        return userNode;
+    }
+}
@@ -0,0 +1,99 @@
+package com.efficiencynow.efficiencynow.config;
+
+import com.efficiencynow.efficiencynow.services.AVLUserService;
+import com.efficiencynow.efficiencynow.services.SessionService;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptador que autentica as requisições aos endpoints protegidos a partir do cookie {@code SESSION}.
+ * <p>
+ * É registrado em {@link WebConfig} para os padrões {@link #PROTECTED_PATHS}, que o Spring MVC compara
+ * com o caminho já decodificado e sem parâmetros de caminho ({@code ;x=1}), o mesmo usado para escolher
+ * o controlador. Assim, variações codificadas da URL não escapam da autenticação.
+ * <p>
+ * A sessão é consultada uma única vez por requisição e o resultado fica disponível como
+ * {@link AuthenticatedUser} no atributo {@link AuthenticatedUser#REQUEST_ATTRIBUTE}. Requisições sem
+ * sessão válida recebem 401 aqui mesmo, antes de o corpo JSON ser lido ou de o controlador executar.
+ * Se a requisição rejeitada tiver corpo, a resposta fecha a conexão, para que o servidor não precise
+ * ler e descartar o corpo apenas para reaproveitá-la.
+ * Requisições OPTIONS (preflight de CORS) não são autenticadas.
+ */
+@Component
+public class SessionAuthenticationInterceptor implements HandlerInterceptor {
+
+    /**
+     * Padrões dos caminhos que exigem sessão válida.
+     */
+    public static final String[] PROTECTED_PATHS = {
+            "/lamp-economy/**",
+            "/ac-economy/**",
+            "/portfolio/**",
+            "/users/profile",
+            "/users/admin/**"
+    };
+
+    private static final String SESSION_COOKIE = "SESSION";
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private AVLUserService avlUserService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return true;
+        }
+
+        String sessionToken = getSessionToken(request);
+        String email = sessionToken == null ? null : sessionService.getEmail(sessionToken);
+        if (email == null) {
+            if (hasBody(request)) {
+                response.setHeader(HttpHeaders.CONNECTION, "close");
+            }
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return false;
+        }
+
+        request.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE,
+                new AuthenticatedUser(email, sessionToken, avlUserService::findUserByEmail));
+        return true;
+    }
+
+    /**
+     * Verifica se a requisição tem corpo, com tamanho declarado ou enviado em partes.
+     *
+     * @param request A requisição.
+     * @return true se a requisição tiver corpo, false caso contrário.
+     */
+    private static boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+    }
+
+    /**
+     * Obtém o token de sessão do cookie da requisição.
+     *
+     * @param request A requisição.
+     * @return O token de sessão, ou null se o cookie não estiver presente.
+     */
+    private static String getSessionToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (SESSION_COOKIE.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+}
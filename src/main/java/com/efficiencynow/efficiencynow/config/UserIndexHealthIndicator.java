@@ -0,0 +1,25 @@
+package com.efficiencynow.efficiencynow.config;
+
+import com.efficiencynow.efficiencynow.services.AVLUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indicador de saúde do índice de usuários.
+ * Fica fora de serviço enquanto a árvore AVL estiver sendo carregada em segundo plano,
+ * permitindo que o balanceador de carga só envie tráfego à instância depois da carga completa.
+ */
+@Component("userIndex")
+public class UserIndexHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private AVLUserService avlUserService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = avlUserService.isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetail("loadedUsers", avlUserService.getLoadedUsers()).build();
+    }
+}
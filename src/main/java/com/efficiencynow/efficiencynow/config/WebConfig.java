@@ -1,13 +1,18 @@
 package com.efficiencynow.efficiencynow.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig {
 
+    @Autowired
+    private SessionAuthenticationInterceptor sessionAuthenticationInterceptor;
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -19,6 +24,12 @@ public class WebConfig {
                         .allowedHeaders("*")
                         .allowCredentials(true);
             }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(sessionAuthenticationInterceptor)
+                        .addPathPatterns(SessionAuthenticationInterceptor.PROTECTED_PATHS);
+            }
         };
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,23 @@
 package com.efficiencynow.efficiencynow.controllers;
 
+import com.efficiencynow.efficiencynow.dtos.ACEconomyBatchSummaryDTO;
 import com.efficiencynow.efficiencynow.dtos.ACEconomyDTO;
-import com.efficiencynow.efficiencynow.services.ACEconomyService;
-import com.efficiencynow.efficiencynow.services.UserService;
+import com.efficiencynow.efficiencynow.dtos.ACEconomyResultDTO;
+import com.efficiencynow.efficiencynow.services.EconomyResultCache;
+import com.efficiencynow.efficiencynow.utils.MathUtils;
+import com.efficiencynow.efficiencynow.utils.NdjsonBatchProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 /**
  * Controlador responsável por gerenciar as operações relacionadas à economia de energia de ar-condicionado.
  */
@@ -16,41 +26,105 @@ import org.springframework.web.bind.annotation.*;
 public class ACEconomyController {
 
     @Autowired
-    private ACEconomyService acEconomyService;
+    private EconomyResultCache economyResultCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private UserService userService;
+    private Validator validator;
 
     /**
      * Calcula a economia mensal de energia com base nos dados fornecidos.
      *
-     * @param sessionToken Token de sessão do usuário, obtido do cookie.
-     * @param economyDTO   Dados de entrada para o cálculo da economia.
-     * @return ResponseEntity com a porcentagem de economia mensal ou status 401 se não autenticado.
+     * @param economyDTO Dados de entrada para o cálculo da economia.
+     * @return ResponseEntity com os custos mensais atual e ideal e a porcentagem de economia mensal.
      */
     @PostMapping("/calc-monthly-economy")
-    public ResponseEntity<Double> calcMonthlyEconomy(@CookieValue(name = "SESSION", required = false) String sessionToken,
-                                                     @RequestBody @Valid ACEconomyDTO economyDTO) {
-        if (sessionToken == null || !userService.isAuthenticated(sessionToken)) {
-            return ResponseEntity.status(401).build();
-        }
+    public ResponseEntity<ACEconomyResultDTO> calcMonthlyEconomy(@RequestBody @Valid ACEconomyDTO economyDTO) {
+        return ResponseEntity.ok(computeMonthlyEconomy(economyDTO));
+    }
 
-        double currentMonthlyConsumption = acEconomyService.calcMonthlyConsumption(
-                economyDTO.getNumberOfAirConditioners(),
-                economyDTO.getBtu(),
-                economyDTO.getTemperature()
+    /**
+     * Calcula a economia mensal de energia de um lote de configurações de ar-condicionado.
+     * O corpo é um fluxo NDJSON (ou um array JSON) de {@link ACEconomyDTO}, processado item a item sem
+     * ser armazenado por inteiro; cada resultado é escrito em NDJSON assim que fica pronto, de modo que o
+     * uso de memória não depende do tamanho do lote. A última linha contém o resumo do lote.
+     * A sessão é verificada uma única vez, antes de o corpo ser lido, pelo
+     * {@link com.efficiencynow.efficiencynow.config.SessionAuthenticationInterceptor}.
+     *
+     * @param request  A requisição, de onde os itens são lidos.
+     * @param response A resposta, onde os resultados são escritos.
+     * @throws IOException Se ocorrer um erro de leitura ou escrita.
+     */
+    @PostMapping(value = "/calc-batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public void calcMonthlyEconomyBatch(HttpServletRequest request,
+                                        HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        ACEconomyTotals totals = new ACEconomyTotals();
+        NdjsonBatchProcessor<ACEconomyDTO, ACEconomyResultDTO> processor = new NdjsonBatchProcessor<>(
+                objectMapper,
+                validator,
+                ACEconomyDTO.class,
+                economyDTO -> {
+                    ACEconomyResultDTO result = computeMonthlyEconomy(economyDTO);
+                    totals.add(economyDTO.getNumberOfAirConditioners(), result);
+                    return result;
+                }
         );
 
-        double idealMonthlyConsumption = acEconomyService.calcIdealMonthlyConsumption(
+        processor.process(request.getInputStream(), response.getOutputStream(), totals::toSummary);
+    }
+
+    /**
+     * Calcula a economia mensal de uma configuração de ar-condicionado.
+     *
+     * @param economyDTO Dados de entrada para o cálculo da economia.
+     * @return Os custos mensais atual e ideal e a porcentagem de economia.
+     */
+    private ACEconomyResultDTO computeMonthlyEconomy(ACEconomyDTO economyDTO) {
+        return economyResultCache.calcMonthlyEconomy(
                 economyDTO.getNumberOfAirConditioners(),
-                economyDTO.getBtu()
+                economyDTO.getBtu(),
+                economyDTO.getTemperature(),
+                economyDTO.getHoursPerDay(),
+                economyDTO.getCostPerKWh()
         );
+    }
 
-        double monthlyEconomyPercentage = acEconomyService.calcMonthlyEconomyPercentage(
-                currentMonthlyConsumption,
-                idealMonthlyConsumption
-        );
+    /**
+     * Acumula os totais de um lote de cálculos de economia de ar-condicionado.
+     */
+    private static class ACEconomyTotals {
+        private long totalAirConditioners;
+        private double currentMonthlyCost;
+        private double idealMonthlyCost;
 
-        return ResponseEntity.ok(monthlyEconomyPercentage);
+        /**
+         * Adiciona um item calculado aos totais.
+         *
+         * @param numberOfAirConditioners Quantidade de aparelhos do item.
+         * @param result                  O resultado do item.
+         */
+        void add(int numberOfAirConditioners, ACEconomyResultDTO result) {
+            this.totalAirConditioners += numberOfAirConditioners;
+            this.currentMonthlyCost += result.getCurrentMonthlyCost();
+            this.idealMonthlyCost += result.getIdealMonthlyCost();
+        }
+
+        /**
+         * @return O resumo do lote.
+         */
+        ACEconomyBatchSummaryDTO toSummary() {
+            double economyPercentage = currentMonthlyCost == 0 ? 0.0
+                    : MathUtils.roundToTwoDecimals(((currentMonthlyCost - idealMonthlyCost) / currentMonthlyCost) * 100);
+            return new ACEconomyBatchSummaryDTO(
+                    totalAirConditioners,
+                    MathUtils.roundToTwoDecimals(currentMonthlyCost),
+                    MathUtils.roundToTwoDecimals(idealMonthlyCost),
+                    economyPercentage
+            );
+        }
     }
 }
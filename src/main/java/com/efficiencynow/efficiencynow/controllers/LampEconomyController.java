@@ -1,13 +1,22 @@
 package com.efficiencynow.efficiencynow.controllers;
 
+import com.efficiencynow.efficiencynow.dtos.LampEconomyBatchSummaryDTO;
 import com.efficiencynow.efficiencynow.dtos.LampEconomyDTO;
-import com.efficiencynow.efficiencynow.services.LampEconomyService;
-import com.efficiencynow.efficiencynow.services.UserService;
+import com.efficiencynow.efficiencynow.services.EconomyResultCache;
+import com.efficiencynow.efficiencynow.utils.MathUtils;
+import com.efficiencynow.efficiencynow.utils.NdjsonBatchProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 /**
  * Controlador REST para operações relacionadas à economia de lâmpadas.
  */
@@ -15,26 +24,23 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/lamp-economy")
 public class LampEconomyController {
     @Autowired
-    private LampEconomyService lampEconomyService;
+    private EconomyResultCache economyResultCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private UserService userService;
+    private Validator validator;
 
     /**
      * Calcula a economia total de energia com base nos tipos de lâmpadas fornecidos.
      *
-     * @param sessionToken   Token de sessão do usuário, obtido a partir de um cookie.
      * @param lampEconomyDTO Objeto DTO contendo o número de lâmpadas fluorescentes, incandescentes e halógenas.
-     * @return ResponseEntity com o valor da economia total ou status 401 se o usuário não estiver autenticado.
+     * @return ResponseEntity com o valor da economia total.
      */
     @PostMapping("/calc")
-    public ResponseEntity<Double> calcEconomy(@CookieValue(name = "SESSION", required = false) String sessionToken,
-                                              @RequestBody @Valid LampEconomyDTO lampEconomyDTO) {
-        if (sessionToken == null || !userService.isAuthenticated(sessionToken)) {
-            return ResponseEntity.status(401).build();
-        }
-
-        double totalEconomy = lampEconomyService.calculateTotalEconomy(
+    public ResponseEntity<Double> calcEconomy(@RequestBody @Valid LampEconomyDTO lampEconomyDTO) {
+        double totalEconomy = economyResultCache.calculateTotalEconomy(
                 lampEconomyDTO.getNumberOfFluorescentLamps(),
                 lampEconomyDTO.getNumberOfIncandescentLamps(),
                 lampEconomyDTO.getNumberOfHalogenLamps()
@@ -42,4 +48,74 @@ public class LampEconomyController {
 
         return ResponseEntity.ok(totalEconomy);
     }
+
+    /**
+     * Calcula a economia total de energia de um lote de inventários de lâmpadas.
+     * O corpo pode ser um array JSON ou um fluxo NDJSON de {@link LampEconomyDTO}; cada item é lido,
+     * validado e calculado individualmente, e o resultado é escrito em NDJSON assim que fica pronto.
+     * A última linha contém o resumo do lote, com a economia ponderada pela quantidade de lâmpadas.
+     * A sessão é verificada uma única vez, antes de o corpo ser lido, pelo
+     * {@link com.efficiencynow.efficiencynow.config.SessionAuthenticationInterceptor}.
+     *
+     * @param request  A requisição, de onde os itens são lidos.
+     * @param response A resposta, onde os resultados são escritos.
+     * @throws IOException Se ocorrer um erro de leitura ou escrita.
+     */
+    @PostMapping(value = "/calc-batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void calcEconomyBatch(HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        LampEconomyTotals totals = new LampEconomyTotals();
+        NdjsonBatchProcessor<LampEconomyDTO, Double> processor = new NdjsonBatchProcessor<>(
+                objectMapper,
+                validator,
+                LampEconomyDTO.class,
+                lampEconomyDTO -> {
+                    double totalEconomy = economyResultCache.calculateTotalEconomy(
+                            lampEconomyDTO.getNumberOfFluorescentLamps(),
+                            lampEconomyDTO.getNumberOfIncandescentLamps(),
+                            lampEconomyDTO.getNumberOfHalogenLamps()
+                    );
+                    totals.add(lampEconomyDTO, totalEconomy);
+                    return totalEconomy;
+                }
+        );
+
+        processor.process(request.getInputStream(), response.getOutputStream(), totals::toSummary);
+    }
+
+    /**
+     * Acumula os totais de um lote de cálculos de economia de lâmpadas.
+     */
+    private static class LampEconomyTotals {
+        private long totalLamps;
+        private double weightedEconomy;
+
+        /**
+         * Adiciona um item calculado aos totais.
+         *
+         * @param lampEconomyDTO O item calculado.
+         * @param totalEconomy   A economia percentual do item.
+         */
+        void add(LampEconomyDTO lampEconomyDTO, double totalEconomy) {
+            long lamps = count(lampEconomyDTO.getNumberOfFluorescentLamps())
+                    + count(lampEconomyDTO.getNumberOfIncandescentLamps())
+                    + count(lampEconomyDTO.getNumberOfHalogenLamps());
+            totalLamps += lamps;
+            weightedEconomy += lamps * totalEconomy;
+        }
+
+        /**
+         * @return O resumo do lote, com a economia ponderada pela quantidade de lâmpadas.
+         */
+        LampEconomyBatchSummaryDTO toSummary() {
+            double totalEconomy = totalLamps == 0 ? 0.0 : MathUtils.roundToTwoDecimals(weightedEconomy / totalLamps);
+            return new LampEconomyBatchSummaryDTO(totalLamps, totalEconomy);
+        }
+
+        private static long count(Integer numberOfLamps) {
+            return numberOfLamps == null ? 0 : numberOfLamps;
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package com.efficiencynow.efficiencynow.controllers;
+
+import com.efficiencynow.efficiencynow.dtos.PortfolioDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioSummaryDTO;
+import com.efficiencynow.efficiencynow.services.PortfolioAggregationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para a agregação da economia de energia de carteiras de edifícios.
+ */
+@RestController
+@RequestMapping("/portfolio")
+public class PortfolioController {
+
+    @Autowired
+    private PortfolioAggregationService portfolioAggregationService;
+
+    /**
+     * Agrega a economia de energia de uma carteira de edifícios.
+     *
+     * @param portfolioDTO Objeto DTO contendo os edifícios da carteira.
+     * @return ResponseEntity com os totais, percentis e totais por categoria, ou status 400
+     * se algum BTU não for suportado.
+     */
+    @PostMapping("/aggregate")
+    public ResponseEntity<PortfolioSummaryDTO> aggregate(@RequestBody @Valid PortfolioDTO portfolioDTO) {
+        try {
+            return ResponseEntity.ok(portfolioAggregationService.aggregate(portfolioDTO.getBuildings()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.efficiencynow.efficiencynow.controllers;
 
 import com.efficiencynow.efficiencynow.Exceptions.Exceptions.AuthException;
+import com.efficiencynow.efficiencynow.Exceptions.Exceptions.ServiceOverloadedException;
+import com.efficiencynow.efficiencynow.config.AuthenticatedUser;
 import com.efficiencynow.efficiencynow.dtos.UserDTO;
+import com.efficiencynow.efficiencynow.dtos.UserPageDTO;
 import com.efficiencynow.efficiencynow.services.AVLUserService;
+import com.efficiencynow.efficiencynow.services.SessionService;
 import com.efficiencynow.efficiencynow.services.UserService;
 import com.efficiencynow.efficiencynow.utils.UserNode;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Controlador REST para gerenciar usuários.
  */
@@ -19,12 +29,20 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/users")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private AVLUserService avlUserService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SessionService sessionService;
+
+    @Value("${efficiencynow.admin.emails:}")
+    private Set<String> adminEmails;
+
     /**
      * Registra um novo usuário.
      *
@@ -43,8 +61,7 @@ public class UserController {
                 registeredUser.getEmail(),
                 registeredUser.getPassword(),
                 registeredUser.getName(),
-                registeredUser.getId(),
-                null
+                registeredUser.getId()
         );
 
         avlUserService.addUserToAVL(userNode);
@@ -56,55 +73,59 @@ public class UserController {
 
     /**
      * Realiza o login de um usuário.
+     * A resposta é produzida de forma assíncrona, depois que a senha é verificada fora da thread da requisição.
      *
      * @param userDTO Os dados do usuário para login.
-     * @return ResponseEntity com os dados do usuário logado.
+     * @return Um futuro com o ResponseEntity contendo os dados do usuário logado, status 401 se as credenciais
+     * forem inválidas ou 503 se o sistema estiver sobrecarregado.
      */
     @PostMapping("/login")
-    public ResponseEntity<UserDTO> login(@RequestBody @Valid UserDTO userDTO) {
-        try {
-            UserDTO loggedUser = userService.login(userDTO);
-
-            ResponseCookie sessionCookie = ResponseCookie.from("SESSION", loggedUser.getToken())
-                    .httpOnly(true)
-                    .secure(true)
-                    .sameSite("Lax")
-                    .maxAge(7 * 24 * 60 * 60)
-                    .path("/")
-                    .build();
-
-            return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, sessionCookie.toString()).body(
-                    new UserDTO(null,
-                            loggedUser.getName(),
-                            loggedUser.getEmail(),
-                            null,
-                            loggedUser.getToken())
-            );
-        } catch (AuthException e) {
-            return ResponseEntity.status(401).build();
-        }
+    public CompletableFuture<ResponseEntity<UserDTO>> login(@RequestBody @Valid UserDTO userDTO) {
+        return userService.login(userDTO)
+                .thenApply(loggedUser -> {
+                    ResponseCookie sessionCookie = ResponseCookie.from("SESSION", loggedUser.getToken())
+                            .httpOnly(true)
+                            .secure(true)
+                            .sameSite("Lax")
+                            .maxAge(sessionService.getTtlSeconds())
+                            .path("/")
+                            .build();
+
+                    return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, sessionCookie.toString()).body(
+                            new UserDTO(null,
+                                    loggedUser.getName(),
+                                    loggedUser.getEmail(),
+                                    null,
+                                    loggedUser.getToken())
+                    );
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof AuthException) {
+                        return ResponseEntity.status(401).build();
+                    }
+                    if (cause instanceof ServiceOverloadedException) {
+                        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "1").build();
+                    }
+                    throw new CompletionException(cause);
+                });
     }
 
     /**
      * Obtém o perfil do usuário logado.
      *
-     * @param sessionToken O token de sessão do usuário.
+     * @param authenticatedUser O usuário autenticado, resolvido a partir do cookie de sessão.
      * @return ResponseEntity com os dados do perfil do usuário.
      */
     @GetMapping("/profile")
-    public ResponseEntity<UserDTO> getProfile(@CookieValue(name = "SESSION", required = false) String sessionToken) {
-        if (sessionToken == null || !userService.isAuthenticated(sessionToken)) {
-            return ResponseEntity.status(401).build();
-        }
-
-        String email = userService.getEmailFromSession(sessionToken);
-        UserNode userNode = avlUserService.findUserByEmail(email);
+    public ResponseEntity<UserDTO> getProfile(@RequestAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE) AuthenticatedUser authenticatedUser) {
+        UserNode userNode = authenticatedUser.getUserNode();
 
         if (userNode == null) {
             return ResponseEntity.status(404).build();
         }
 
-        UserDTO user = new UserDTO(null, userNode.getName(), userNode.getEmail(), null, sessionToken);
+        UserDTO user = new UserDTO(null, userNode.getName(), userNode.getEmail(), null, authenticatedUser.getSessionToken());
         return ResponseEntity.ok(user);
     }
 
@@ -136,6 +157,60 @@ public class UserController {
         }
     }
 
+    /**
+     * Busca usuários no índice em memória, sem consultar o banco de dados, com paginação.
+     * Aceita um único critério: prefixo do email, domínio do email ou intervalo [from, to) de emails
+     * (sem critério, lista todos os usuários). Disponível apenas para os emails configurados em
+     * {@code efficiencynow.admin.emails}.
+     *
+     * @param authenticatedUser O usuário autenticado, resolvido a partir do cookie de sessão.
+     * @param prefix            Prefixo do email.
+     * @param domain            Domínio do email, com ou sem "@".
+     * @param from              Email inicial do intervalo (inclusivo).
+     * @param to                Email final do intervalo (exclusivo).
+     * @param offset            Posição do primeiro usuário da página.
+     * @param limit             Número máximo de usuários da página.
+     * @param includeTotal      Indica se a busca por domínio deve contar o total de usuários, o que
+     *                          exige percorrer o índice inteiro; as demais buscas sempre o informam.
+     * @return ResponseEntity com a página de usuários, status 400 se os parâmetros forem inválidos,
+     * 403 se o usuário não for administrador ou 503 se o índice ainda estiver sendo carregado.
+     */
+    @GetMapping("/admin/search")
+    public ResponseEntity<UserPageDTO> searchUsers(@RequestAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE) AuthenticatedUser authenticatedUser,
+                                                   @RequestParam(required = false) String prefix,
+                                                   @RequestParam(required = false) String domain,
+                                                   @RequestParam(required = false) String from,
+                                                   @RequestParam(required = false) String to,
+                                                   @RequestParam(defaultValue = "0") int offset,
+                                                   @RequestParam(defaultValue = "50") int limit,
+                                                   @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (!adminEmails.contains(authenticatedUser.getEmail())) {
+            return ResponseEntity.status(403).build();
+        }
+        int criteria = (prefix != null ? 1 : 0) + (domain != null ? 1 : 0) + (from != null || to != null ? 1 : 0);
+        if (criteria > 1 || offset < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        AVLUserService.UserPage page;
+        try {
+            if (prefix != null) {
+                page = avlUserService.findUsersByPrefix(prefix, offset, limit);
+            } else if (domain != null) {
+                page = avlUserService.findUsersByDomain(domain, offset, limit, includeTotal);
+            } else {
+                page = avlUserService.findUsersInRange(from, to, offset, limit);
+            }
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        List<UserDTO> users = page.users().stream()
+                .map(user -> new UserDTO(user.getId(), user.getName(), user.getEmail(), null))
+                .toList();
+        return ResponseEntity.ok(new UserPageDTO(page.total(), offset, limit, users));
+    }
+
     /**
      * Exclui um usuário pelo email.
      *
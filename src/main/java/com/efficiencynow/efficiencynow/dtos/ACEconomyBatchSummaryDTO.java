@@ -0,0 +1,36 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO que representa o agregado de um lote de cálculos de economia de ar-condicionado.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ACEconomyBatchSummaryDTO {
+
+    /**
+     * Quantidade total de aparelhos nos itens válidos do lote.
+     */
+    private long totalAirConditioners;
+
+    /**
+     * Soma do custo mensal atual dos itens válidos.
+     */
+    private double currentMonthlyCost;
+
+    /**
+     * Soma do custo mensal ideal dos itens válidos.
+     */
+    private double idealMonthlyCost;
+
+    /**
+     * Porcentagem de economia mensal do lote ao ajustar todos os aparelhos para a faixa ideal.
+     */
+    private double monthlyEconomyPercentage;
+}
@@ -0,0 +1,32 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ACEconomyResultDTO representa o resultado do cálculo de economia de ar-condicionado:
+ * o custo mensal atual, o custo mensal na faixa ideal de temperatura e a economia percentual.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ACEconomyResultDTO {
+
+    /**
+     * Custo mensal com a temperatura informada, em moeda local.
+     */
+    private double currentMonthlyCost;
+
+    /**
+     * Custo mensal com a temperatura ajustada para a faixa ideal (22-24°C), em moeda local.
+     */
+    private double idealMonthlyCost;
+
+    /**
+     * Porcentagem de economia mensal ao ajustar para a faixa ideal.
+     */
+    private double monthlyEconomyPercentage;
+}
@@ -0,0 +1,38 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO que representa o resultado de um item de um processamento em lote.
+ * Contém o resultado do cálculo ou, se o item for inválido, a lista de erros.
+ *
+ * @param <R> Tipo do resultado do item.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO<R> {
+
+    /**
+     * Posição do item no lote, a partir de 0.
+     */
+    private int index;
+
+    /**
+     * Resultado do cálculo, ou null se o item for inválido.
+     */
+    private R result;
+
+    /**
+     * Erros de validação do item, ou null se o item for válido.
+     */
+    private List<String> errors;
+}
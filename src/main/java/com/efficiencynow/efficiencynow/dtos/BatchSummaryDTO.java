@@ -0,0 +1,33 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO que representa o resumo de um processamento em lote, enviado após o último item.
+ *
+ * @param <A> Tipo do agregado calculado sobre os itens válidos.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class BatchSummaryDTO<A> {
+
+    /**
+     * Número de itens lidos.
+     */
+    private int processed;
+
+    /**
+     * Número de itens rejeitados por erro de validação.
+     */
+    private int failed;
+
+    /**
+     * Agregado calculado sobre os itens válidos.
+     */
+    private A aggregate;
+}
@@ -0,0 +1,26 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO que representa o agregado de um lote de cálculos de economia de lâmpadas.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class LampEconomyBatchSummaryDTO {
+
+    /**
+     * Número total de lâmpadas nos itens válidos do lote.
+     */
+    private long totalLamps;
+
+    /**
+     * Economia percentual do lote, ponderada pela quantidade de lâmpadas de cada item.
+     */
+    private double totalEconomy;
+}
@@ -0,0 +1,38 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO que representa um edifício de uma carteira, com seu inventário de lâmpadas e de ar-condicionado.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PortfolioBuildingDTO {
+
+    /**
+     * Categoria do edifício (por exemplo, "residencial" ou "comercial"), usada no detalhamento por categoria.
+     */
+    @NotBlank
+    private String category;
+
+    /**
+     * Inventário de lâmpadas do edifício.
+     * Opcional.
+     */
+    @Valid
+    private LampEconomyDTO lampEconomy;
+
+    /**
+     * Configuração de ar-condicionado do edifício.
+     * Opcional.
+     */
+    @Valid
+    private ACEconomyDTO acEconomy;
+}
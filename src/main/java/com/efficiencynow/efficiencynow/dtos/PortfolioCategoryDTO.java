@@ -0,0 +1,46 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO que representa os totais de economia dos edifícios de uma mesma categoria.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PortfolioCategoryDTO {
+
+    /**
+     * Número de edifícios da categoria.
+     */
+    private long buildings;
+
+    /**
+     * Número total de lâmpadas da categoria.
+     */
+    private long totalLamps;
+
+    /**
+     * Economia percentual de lâmpadas, ponderada pela quantidade de lâmpadas de cada edifício.
+     */
+    private double lampEconomyPercentage;
+
+    /**
+     * Soma dos custos mensais atuais de ar-condicionado, em moeda local.
+     */
+    private double currentMonthlyCost;
+
+    /**
+     * Soma dos custos mensais de ar-condicionado na faixa ideal de temperatura, em moeda local.
+     */
+    private double idealMonthlyCost;
+
+    /**
+     * Economia mensal de ar-condicionado ao ajustar para a faixa ideal, em moeda local.
+     */
+    private double monthlySavings;
+}
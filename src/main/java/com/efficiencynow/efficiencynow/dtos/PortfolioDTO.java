@@ -0,0 +1,26 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO que representa uma carteira de edifícios a ser agregada.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PortfolioDTO {
+
+    /**
+     * Edifícios da carteira.
+     */
+    @NotNull
+    private List<@Valid @NotNull PortfolioBuildingDTO> buildings;
+}
@@ -0,0 +1,48 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * DTO que representa o agregado de economia de uma carteira de edifícios.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class PortfolioSummaryDTO {
+
+    /**
+     * Totais de toda a carteira.
+     */
+    private PortfolioCategoryDTO total;
+
+    /**
+     * Porcentagem de economia mensal de ar-condicionado de toda a carteira.
+     */
+    private double monthlyEconomyPercentage;
+
+    /**
+     * Mediana da economia mensal de ar-condicionado por edifício, em moeda local.
+     */
+    private double monthlySavingsP50;
+
+    /**
+     * Percentil 90 da economia mensal de ar-condicionado por edifício, em moeda local.
+     */
+    private double monthlySavingsP90;
+
+    /**
+     * Percentil 99 da economia mensal de ar-condicionado por edifício, em moeda local.
+     */
+    private double monthlySavingsP99;
+
+    /**
+     * Totais por categoria de edifício, em ordem alfabética de categoria.
+     */
+    private Map<String, PortfolioCategoryDTO> categories;
+}
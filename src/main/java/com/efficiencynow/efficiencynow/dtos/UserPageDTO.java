@@ -0,0 +1,39 @@
+package com.efficiencynow.efficiencynow.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * DTO que representa uma página do resultado de uma busca de usuários.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class UserPageDTO {
+
+    /**
+     * Número total de usuários encontrados pela busca, ou null se a busca por domínio foi feita sem
+     * pedir o total.
+     */
+    private Integer total;
+
+    /**
+     * Posição do primeiro usuário da página no resultado.
+     */
+    private int offset;
+
+    /**
+     * Número máximo de usuários por página.
+     */
+    private int limit;
+
+    /**
+     * Usuários da página, em ordem de email, sem senha nem token.
+     */
+    private List<UserDTO> users;
+}
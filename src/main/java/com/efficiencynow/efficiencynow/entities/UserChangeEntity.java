@@ -0,0 +1,55 @@
+package com.efficiencynow.efficiencynow.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entidade de alteração de usuário.
+ * Cada linha registra que um usuário foi cadastrado, alterado ou excluído. As linhas são gravadas na
+ * mesma transação da alteração e lidas pelas instâncias da aplicação, em ordem de id, para manter seus
+ * índices de usuários sincronizados.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "user_changes")
+public class UserChangeEntity {
+
+    /**
+     * O ID único da alteração.
+     * Gerado automaticamente pela estratégia de identidade; define a ordem das alterações.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * O e-mail do usuário alterado.
+     * Não pode ser nulo.
+     */
+    @Column(name = "email", nullable = false)
+    private String email;
+
+    /**
+     * O instante da alteração.
+     * Não pode ser nulo.
+     */
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    /**
+     * Construtor para registrar uma alteração no instante atual.
+     *
+     * @param email O e-mail do usuário alterado.
+     */
+    public UserChangeEntity(String email) {
+        this.email = email;
+        this.changedAt = Instant.now();
+    }
+}
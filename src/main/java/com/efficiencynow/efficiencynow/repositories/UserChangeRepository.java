@@ -0,0 +1,48 @@
+package com.efficiencynow.efficiencynow.repositories;
+
+import com.efficiencynow.efficiencynow.entities.UserChangeEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repositório de alterações de usuário.
+ * Esta interface é usada para gravar e ler o registro de alterações usado na sincronização dos índices.
+ */
+public interface UserChangeRepository extends JpaRepository<UserChangeEntity, Long> {
+
+    /**
+     * Busca uma página de alterações, em ordem de id, cujo id seja maior que o informado.
+     *
+     * @param id       O id da última alteração já aplicada.
+     * @param pageable O tamanho da página.
+     * @return A página de alterações em ordem crescente de id.
+     */
+    @Query("select uc from UserChangeEntity uc where uc.id > ?1 order by uc.id")
+    List<UserChangeEntity> findPageAfterId(Long id, Pageable pageable);
+
+    /**
+     * Obtém o maior id entre as alterações registradas antes de um instante.
+     *
+     * @param instant O instante limite.
+     * @return O maior id, ou 0 se não houver alterações anteriores ao instante.
+     */
+    @Query("select coalesce(max(uc.id), 0) from UserChangeEntity uc where uc.changedAt < ?1")
+    long findMaxIdChangedBefore(Instant instant);
+
+    /**
+     * Exclui as alterações registradas antes de um instante.
+     *
+     * @param instant O instante limite.
+     * @return O número de alterações excluídas.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from UserChangeEntity uc where uc.changedAt < ?1")
+    int deleteChangedBefore(Instant instant);
+}
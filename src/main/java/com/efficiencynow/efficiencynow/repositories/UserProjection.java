@@ -0,0 +1,29 @@
+package com.efficiencynow.efficiencynow.repositories;
+
+/**
+ * Projeção leve de usuário.
+ * Contém apenas os campos necessários para o índice de usuários em memória,
+ * evitando carregar entidades gerenciadas pelo contexto de persistência.
+ */
+public interface UserProjection {
+
+    /**
+     * @return O ID do usuário.
+     */
+    Long getId();
+
+    /**
+     * @return O e-mail do usuário.
+     */
+    String getEmail();
+
+    /**
+     * @return O hash da senha do usuário.
+     */
+    String getPassword();
+
+    /**
+     * @return O nome do usuário.
+     */
+    String getName();
+}
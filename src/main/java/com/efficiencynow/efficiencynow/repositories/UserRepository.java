@@ -1,9 +1,14 @@
 package com.efficiencynow.efficiencynow.repositories;
 
 import com.efficiencynow.efficiencynow.entities.UserEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,6 +26,53 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     @Query("select ue from UserEntity ue where ue.email = ?1")
     Optional<UserEntity> findByEmail(String email);
 
+    /**
+     * Busca uma página de usuários, em ordem de email, cujo email seja posterior ao informado.
+     * A paginação por chave mantém o custo de cada página constante, independentemente da posição.
+     *
+     * @param email    O último email da página anterior, ou uma string vazia para a primeira página.
+     * @param pageable O tamanho da página.
+     * @return A página de usuários em ordem crescente de email.
+     */
+    @Query("select ue.id as id, ue.email as email, ue.password as password, ue.name as name " +
+            "from UserEntity ue where ue.email > ?1 order by ue.email")
+    List<UserProjection> findPageAfterEmail(String email, Pageable pageable);
+
+    /**
+     * Busca uma página de usuários, em ordem de id, cujo id seja maior que o informado.
+     * Usada para obter os usuários cadastrados depois de um snapshot do índice.
+     *
+     * @param id       O último id já conhecido.
+     * @param pageable O tamanho da página.
+     * @return A página de usuários em ordem crescente de id.
+     */
+    @Query("select ue.id as id, ue.email as email, ue.password as password, ue.name as name " +
+            "from UserEntity ue where ue.id > ?1 order by ue.id")
+    List<UserProjection> findPageAfterId(Long id, Pageable pageable);
+
+    /**
+     * Busca os usuários com os emails informados.
+     * Usada para obter o estado atual dos usuários alterados por outras instâncias.
+     *
+     * @param emails Os emails dos usuários.
+     * @return Os usuários encontrados, em qualquer ordem.
+     */
+    @Query("select ue.id as id, ue.email as email, ue.password as password, ue.name as name " +
+            "from UserEntity ue where ue.email in ?1")
+    List<UserProjection> findAllByEmailIn(Collection<String> emails);
+
+    /**
+     * Atualiza o hash da senha de um usuário.
+     *
+     * @param email    O email do usuário.
+     * @param password O novo hash da senha.
+     * @return O número de usuários atualizados.
+     */
+    @Modifying
+    @Transactional
+    @Query("update UserEntity ue set ue.password = ?2 where ue.email = ?1")
+    int updatePasswordByEmail(String email, String password);
+
     /**
      * Exclui um usuário pelo email.
      *
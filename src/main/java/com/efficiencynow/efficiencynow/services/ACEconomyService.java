@@ -1,10 +1,9 @@
 package com.efficiencynow.efficiencynow.services;
 
+import com.efficiencynow.efficiencynow.dtos.ACEconomyResultDTO;
+import com.efficiencynow.efficiencynow.utils.MathUtils;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 /**
  * Serviço para cálculo de consumo e economia de energia de aparelhos de ar condicionado.
  */
@@ -22,6 +21,32 @@ public class ACEconomyService {
     // Custo medio do kwh no Brasil.
     private static final double COST_PER_KWH = 0.74;
 
+    // Os consumos mensais acima seguem a etiqueta do INMETRO, que considera 1 hora de uso por dia.
+    private static final int REFERENCE_HOURS_PER_DAY = 1;
+
+    // Faixa de temperatura aceita pelo ACEconomyDTO (16-30°C), tabelada em passos de meio grau.
+    private static final double MIN_TABLE_TEMPERATURE = 16.0;
+    private static final int TEMPERATURE_STEPS_PER_DEGREE = 2;
+    private static final int TEMPERATURE_STEPS = 29;
+
+    // Fator de ajuste de cada passo de temperatura, calculado uma vez ao carregar a classe.
+    private static final double[] ADJUSTMENT_FACTOR_TABLE = buildAdjustmentFactorTable();
+
+    /**
+     * Monta a tabela de fatores de ajuste para cada passo de meio grau da faixa aceita.
+     * Os fatores são calculados com {@link #calcAdjustmentFactor(double)} sobre a mesma temperatura,
+     * portanto os resultados são idênticos com ou sem a tabela.
+     *
+     * @return A tabela de fatores de ajuste.
+     */
+    private static double[] buildAdjustmentFactorTable() {
+        double[] table = new double[TEMPERATURE_STEPS];
+        for (int step = 0; step < TEMPERATURE_STEPS; step++) {
+            table[step] = calcAdjustmentFactor(MIN_TABLE_TEMPERATURE + (double) step / TEMPERATURE_STEPS_PER_DEGREE);
+        }
+        return table;
+    }
+
     /**
      * Obtém o consumo mensal médio em kWh com base no valor de BTU fornecido.
      *
@@ -29,7 +54,7 @@ public class ACEconomyService {
      * @return Consumo mensal médio em kWh.
      * @throws IllegalArgumentException Se o valor de BTU fornecido não for suportado.
      */
-    private double getMonthlyConsumptionByBTU(int btu) {
+    private static double getMonthlyConsumptionByBTU(int btu) {
         switch (btu) {
             case 7500:
                 return CONSUMPTION_7500_BTU;
@@ -45,6 +70,38 @@ public class ACEconomyService {
         }
     }
 
+    /**
+     * Calcula o fator de ajuste do consumo para temperaturas fora da faixa ideal (22-24°C).
+     *
+     * @param temperature Temperatura em graus Celsius.
+     * @return O fator multiplicativo de ajuste do consumo.
+     */
+    private static double calcAdjustmentFactor(double temperature) {
+        double adjustmentFactor = 1.0;
+        if (temperature < 22) {
+            adjustmentFactor += (22 - temperature) * PERCENT_INCREASE_PER_DEGREE;
+        } else if (temperature > 24) {
+            adjustmentFactor += (temperature - 24) * PERCENT_INCREASE_PER_DEGREE;
+        }
+        return adjustmentFactor;
+    }
+
+    /**
+     * Obtém o fator de ajuste do consumo, consultando a tabela quando a temperatura é um passo de meio
+     * grau entre 16 e 30°C e calculando-o nos demais casos.
+     *
+     * @param temperature Temperatura em graus Celsius.
+     * @return O fator multiplicativo de ajuste do consumo.
+     */
+    private static double getAdjustmentFactor(double temperature) {
+        double step = (temperature - MIN_TABLE_TEMPERATURE) * TEMPERATURE_STEPS_PER_DEGREE;
+        int index = (int) step;
+        if (index == step && index >= 0 && index < TEMPERATURE_STEPS) {
+            return ADJUSTMENT_FACTOR_TABLE[index];
+        }
+        return calcAdjustmentFactor(temperature);
+    }
+
     /**
      * Calcula o consumo mensal em kWh com base no número de aparelhos de ar condicionado,
      * no valor de BTU e na temperatura fornecida.
@@ -56,47 +113,92 @@ public class ACEconomyService {
      */
     public double calcMonthlyConsumption(int numberOfAirConditioners, int btu, double temperature) {
         double baseConsumption = getMonthlyConsumptionByBTU(btu);
+        double adjustmentFactor = getAdjustmentFactor(temperature);
 
-        double adjustmentFactor = 1.0;
-        if (temperature < 22) {
-            adjustmentFactor += (22 - temperature) * PERCENT_INCREASE_PER_DEGREE;
-        } else if (temperature > 24) {
-            adjustmentFactor += (temperature - 24) * PERCENT_INCREASE_PER_DEGREE;
+        return MathUtils.roundToTwoDecimals(numberOfAirConditioners * baseConsumption * adjustmentFactor * COST_PER_KWH);
+    }
+
+    /**
+     * Calcula o consumo mensal para várias linhas de uma só vez, a partir de vetores de quantidades,
+     * BTUs e temperaturas (uma posição por linha), gravando o resultado de cada linha em {@code output}.
+     * Produz exatamente o mesmo valor que {@link #calcMonthlyConsumption(int, int, double)} para cada linha.
+     * <p>
+     * A primeira passagem calcula o consumo de cada linha direto no vetor de saída, sem vetores auxiliares;
+     * a segunda arredonda.
+     *
+     * @param numberOfAirConditioners Quantidades de aparelhos de ar condicionado.
+     * @param btu                     Valores de BTU dos aparelhos.
+     * @param temperature             Temperaturas em graus Celsius.
+     * @param output                  Vetor que recebe o consumo mensal de cada linha.
+     * @throws IllegalArgumentException Se os vetores não tiverem o mesmo tamanho ou se algum BTU não for suportado.
+     */
+    public void calcMonthlyConsumption(int[] numberOfAirConditioners, int[] btu, double[] temperature, double[] output) {
+        int rows = output.length;
+        if (numberOfAirConditioners.length != rows || btu.length != rows || temperature.length != rows) {
+            throw new IllegalArgumentException("Os vetores de entrada e de saída devem ter o mesmo tamanho.");
         }
 
-        return BigDecimal.valueOf(numberOfAirConditioners * baseConsumption * adjustmentFactor * COST_PER_KWH)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        for (int i = 0; i < rows; i++) {
+            double baseConsumption;
+            try {
+                baseConsumption = getMonthlyConsumptionByBTU(btu[i]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(e.getMessage() + " (posição " + i + ")", e);
+            }
+            output[i] = numberOfAirConditioners[i] * baseConsumption * getAdjustmentFactor(temperature[i]) * COST_PER_KWH;
+        }
+        for (int i = 0; i < rows; i++) {
+            output[i] = MathUtils.roundToTwoDecimals(output[i]);
+        }
     }
 
     /**
-     * Calcula o consumo ideal mensal em kWh (temperatura ajustada entre 22-24°C).
+     * Normaliza as horas de uso diário informadas para o cálculo de economia.
      *
-     * @param numberOfAirConditioners Quantidade de aparelhos.
-     * @param btu                     Potência em BTUs.
-     * @return Consumo ideal mensal em kWh.
+     * @param hoursPerDay Horas de uso diário.
+     * @return As horas informadas, ou a referência de 1 hora se forem menores que 1.
      */
-    public double calcIdealMonthlyConsumption(int numberOfAirConditioners, int btu) {
-        double baseConsumption = getMonthlyConsumptionByBTU(btu);
+    public int normalizeHoursPerDay(int hoursPerDay) {
+        return hoursPerDay >= 1 ? hoursPerDay : REFERENCE_HOURS_PER_DAY;
+    }
 
-        double totalConsumption = numberOfAirConditioners * baseConsumption;
-        return BigDecimal.valueOf(totalConsumption * COST_PER_KWH)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+    /**
+     * Normaliza o custo do kWh informado para o cálculo de economia.
+     *
+     * @param costPerKWh Custo do kWh.
+     * @return O custo informado, ou o custo médio no Brasil se for menor ou igual a 0.
+     */
+    public double normalizeCostPerKWh(double costPerKWh) {
+        return costPerKWh > 0 ? costPerKWh : COST_PER_KWH;
     }
 
     /**
-     * Calcula a porcentagem de economia mensal ao ajustar para a faixa ideal.
+     * Calcula, em uma única passagem, o custo mensal atual, o custo mensal ideal (22-24°C) e a economia
+     * percentual, considerando as horas de uso diário e o custo do kWh informados.
+     * O consumo base e o fator de ajuste são obtidos uma única vez para os três valores.
      *
-     * @param currentMonthlyConsumption Consumo mensal atual em kWh.
-     * @param idealMonthlyConsumption   Consumo mensal ideal em kWh.
-     * @return Porcentagem de economia mensal.
+     * @param numberOfAirConditioners Quantidade de aparelhos.
+     * @param btu                     Potência em BTUs.
+     * @param temperature             Temperatura em graus Celsius.
+     * @param hoursPerDay             Horas de uso diário; valores menores que 1 usam a referência de 1 hora.
+     * @param costPerKWh              Custo do kWh; valores menores ou iguais a 0 usam o custo médio no Brasil.
+     * @return O resultado com os custos mensais e a porcentagem de economia.
+     * @throws IllegalArgumentException Se o valor de BTU fornecido não for suportado.
      */
-    public double calcMonthlyEconomyPercentage(double currentMonthlyConsumption, double idealMonthlyConsumption) {
-        double economy = currentMonthlyConsumption - idealMonthlyConsumption;
+    public ACEconomyResultDTO calcMonthlyEconomy(int numberOfAirConditioners, int btu, double temperature,
+                                                 int hoursPerDay, double costPerKWh) {
+        double baseConsumption = getMonthlyConsumptionByBTU(btu);
+        double adjustmentFactor = getAdjustmentFactor(temperature);
+
+        double hours = normalizeHoursPerDay(hoursPerDay);
+        double cost = normalizeCostPerKWh(costPerKWh);
+        double idealMonthlyConsumption = numberOfAirConditioners * baseConsumption * hours / REFERENCE_HOURS_PER_DAY;
+
+        double currentMonthlyCost = MathUtils.roundToTwoDecimals(idealMonthlyConsumption * adjustmentFactor * cost);
+        double idealMonthlyCost = MathUtils.roundToTwoDecimals(idealMonthlyConsumption * cost);
+        double monthlyEconomyPercentage = currentMonthlyCost == 0 ? 0.0
+                : MathUtils.roundToTwoDecimals(((currentMonthlyCost - idealMonthlyCost) / currentMonthlyCost) * 100);
 
-        return BigDecimal.valueOf((economy / currentMonthlyConsumption) * 100)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        return new ACEconomyResultDTO(currentMonthlyCost, idealMonthlyCost, monthlyEconomyPercentage);
     }
 }
@@ -1,59 +1,285 @@
 package com.efficiencynow.efficiencynow.services;
 
-import com.efficiencynow.efficiencynow.entities.UserEntity;
+import com.efficiencynow.efficiencynow.repositories.UserProjection;
 import com.efficiencynow.efficiencynow.repositories.UserRepository;
-import com.efficiencynow.efficiencynow.utils.AVLTree;
+import com.efficiencynow.efficiencynow.utils.AVLUserIndex;
+import com.efficiencynow.efficiencynow.utils.OffHeapUserIndex;
+import com.efficiencynow.efficiencynow.utils.UserIndex;
+import com.efficiencynow.efficiencynow.utils.UserIndexSnapshot;
+import com.efficiencynow.efficiencynow.utils.UserIndexView;
 import com.efficiencynow.efficiencynow.utils.UserNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Serviço para gerenciar a árvore AVL de usuários.
+ * <p>
+ * Se {@code efficiencynow.user-index.snapshot.path} estiver configurado, o índice é gravado
+ * periodicamente em um snapshot binário. Na inicialização, o snapshot é carregado e apenas os
+ * usuários cadastrados depois dele (id maior que o maior id do snapshot) são lidos do banco.
+ * <p>
+ * Com {@code efficiencynow.user-index.storage=off-heap}, o índice guarda os usuários em buffers
+ * diretos ({@link OffHeapUserIndex}) em vez da árvore AVL na heap, reduzindo o tamanho da heap e o
+ * trabalho do coletor de lixo em bases grandes.
  */
 @Service
 public class AVLUserService {
 
-    private final AVLTree<String, UserNode> userAVLTree = new AVLTree<>();
+    /**
+     * Página do resultado de uma busca no índice.
+     *
+     * @param total O número total de usuários encontrados, ou null se a contagem não foi pedida.
+     * @param users Os usuários da página, em ordem de email.
+     */
+    public record UserPage(Integer total, List<UserNode> users) {
+    }
+
+    private UserIndex userIndex;
+
+    private final AtomicLong warmupLoadedUsers = new AtomicLong();
+
+    private final Object warmupLock = new Object();
+
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    private volatile long loadStartedAt;
+
+    private Timer warmupTimer;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${efficiencynow.user-index.warmup.page-size:5000}")
+    private int warmupPageSize;
+
+    @Value("${efficiencynow.user-index.warmup.retry-delay-ms:10000}")
+    private long warmupRetryDelayMs;
+
+    @Value("${efficiencynow.user-index.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${efficiencynow.user-index.storage:heap}")
+    private String storage;
+
     /**
-     * Inicializa a árvore AVL com dados dos usuários do banco de dados.
+     * Inicializa a árvore AVL com dados dos usuários.
+     * Os usuários vêm do snapshot, quando houver um válido, ou do banco de dados, lidos em páginas
+     * limitadas, em ordem de email, usando uma projeção leve. As páginas são repassadas ao índice
+     * conforme são lidas, sem reunir todos os usuários em uma lista: com {@code storage=off-heap},
+     * cada usuário vai direto para os buffers do segmento. A árvore é construída em tempo linear,
+     * sem inserções individuais nem rotações.
+     * Alterações recebidas durante a carga são aplicadas logo após a construção da árvore,
+     * antes de o índice ser marcado como pronto.
+     * O instante em que a carga começou é guardado como ponto de partida da sincronização com as
+     * demais instâncias.
      */
-    @Transactional
     public void initializeTree() {
         try {
-            List<UserEntity> users = userRepository.findAll();
-            for (UserEntity user : users) {
-                UserNode userNode = new UserNode(
-                        user.getEmail(),
-                        user.getPassword(),
-                        user.getName(),
-                        user.getId(),
-                        null
-                );
-
-                userAVLTree.insert(user.getEmail(), userNode);
+            long start = System.nanoTime();
+            warmupLoadedUsers.set(0);
+            long loadStart = System.currentTimeMillis();
+
+            boolean fromSnapshot = loadFromSnapshot();
+            if (!fromSnapshot) {
+                loadFromDatabase();
+            }
+
+            synchronized (warmupLock) {
+                pendingChanges.forEach(Runnable::run);
+                pendingChanges.clear();
+                loadStartedAt = loadStart;
+                ready = true;
             }
-            System.out.println("AVL Tree inicializada com " + users.size() + " usuários.");
+            warmupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            System.out.println("AVL Tree inicializada com " + userIndex.size() + " usuários"
+                    + (fromSnapshot ? " a partir do snapshot." : "."));
         } catch (Exception e) {
             throw new RuntimeException("Erro ao inicializar a AVL Tree: " + e.getMessage(), e);
         }
+
+        if (!snapshotPath.isEmpty()) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Carrega no índice todos os usuários do banco de dados, em páginas e em ordem de email.
+     * A collation do banco pode ordenar de forma diferente da ordem de bytes do índice; nesse caso
+     * o próprio índice reordena os usuários ao final da carga.
+     */
+    private void loadFromDatabase() {
+        userIndex.load(new DatabaseUsers());
+    }
+
+    /**
+     * Carrega no índice os usuários do snapshot e acrescenta os cadastrados depois dele.
+     * O snapshot é descartado se não existir, estiver corrompido ou se o total de usuários resultante
+     * não coincidir com o do banco (por exemplo, quando usuários antigos foram excluídos depois dele).
+     *
+     * @return true se o índice foi carregado a partir do snapshot, false se ele não puder ser usado.
+     */
+    private boolean loadFromSnapshot() {
+        if (snapshotPath.isEmpty() || !Files.exists(Path.of(snapshotPath))) {
+            return false;
+        }
+
+        UserIndexSnapshot.Contents snapshot;
+        try {
+            snapshot = UserIndexSnapshot.read(Path.of(snapshotPath));
+        } catch (IOException e) {
+            System.err.println("Snapshot do índice de usuários ignorado: " + e.getMessage());
+            return false;
+        }
+        warmupLoadedUsers.set(snapshot.size());
+
+        Map<byte[], UserNode> newUsers = new TreeMap<>(Arrays::compareUnsigned);
+        long lastId = snapshot.maxUserId();
+        List<UserProjection> page;
+        do {
+            page = userRepository.findPageAfterId(lastId, PageRequest.of(0, warmupPageSize));
+            for (UserProjection user : page) {
+                UserNode userNode = toUserNode(user);
+                newUsers.put(userNode.getEmailBytes(), userNode);
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == warmupPageSize);
+
+        // Um email excluído e cadastrado novamente volta com um id novo e substitui o do snapshot.
+        // Snapshots gravados antes da ordenação por bytes seguem a ordem de String; o índice os reordena.
+        try {
+            userIndex.load(Stream.concat(
+                    StreamSupport.stream(snapshot.spliterator(), false)
+                            .filter(user -> !newUsers.containsKey(user.getEmailBytes())),
+                    newUsers.values().stream()).iterator());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Snapshot do índice de usuários ignorado: " + e.getMessage());
+            warmupLoadedUsers.set(0);
+            return false;
+        }
+        warmupLoadedUsers.set(userIndex.size());
+
+        long databaseUsers = userRepository.count();
+        if (userIndex.size() != databaseUsers) {
+            System.err.println("Snapshot do índice de usuários desatualizado (" + userIndex.size() + " usuários, "
+                    + databaseUsers + " no banco); carregando do banco.");
+            warmupLoadedUsers.set(0);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Grava periodicamente o conteúdo atual da árvore AVL no snapshot, se configurado.
+     * Falhas são registradas e não interrompem o serviço; o snapshot anterior é mantido.
+     */
+    @Scheduled(fixedDelayString = "${efficiencynow.user-index.snapshot.interval-ms:600000}")
+    public void writeSnapshot() {
+        if (snapshotPath.isEmpty() || !ready) {
+            return;
+        }
+        try {
+            UserIndexSnapshot.write(Path.of(snapshotPath), userIndex.snapshot());
+        } catch (IOException e) {
+            System.err.println("Não foi possível gravar o snapshot do índice de usuários: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grava um último snapshot ao encerrar a aplicação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+    }
+
+    /**
+     * Converte a projeção de um usuário em um nó da árvore.
+     *
+     * @param user A projeção do usuário.
+     * @return O nó do usuário.
+     */
+    private UserNode toUserNode(UserProjection user) {
+        return new UserNode(user.getEmail(), user.getPassword(), user.getName(), user.getId());
+    }
+
+    /**
+     * Usuários do banco de dados, lidos página a página, em ordem de email, à medida que são consumidos.
+     */
+    private final class DatabaseUsers implements Iterator<UserNode> {
+        private String lastEmail = "";
+        private List<UserProjection> page = List.of();
+        private int next;
+        private boolean lastPage;
+
+        @Override
+        public boolean hasNext() {
+            if (next == page.size() && !lastPage) {
+                page = userRepository.findPageAfterEmail(lastEmail, PageRequest.of(0, warmupPageSize));
+                next = 0;
+                lastPage = page.size() < warmupPageSize;
+                if (!page.isEmpty()) {
+                    lastEmail = page.get(page.size() - 1).getEmail();
+                    warmupLoadedUsers.addAndGet(page.size());
+                }
+            }
+            return next < page.size();
+        }
+
+        @Override
+        public UserNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return toUserNode(page.get(next++));
+        }
     }
 
     /**
      * Busca um usuário na árvore AVL pelo email.
+     * Enquanto o índice não estiver pronto, a busca é feita diretamente no banco de dados.
      *
      * @param email O email do usuário a ser buscado.
      * @return O nó do usuário encontrado, ou null se não encontrado.
      */
     public UserNode findUserByEmail(String email) {
-        return userAVLTree.search(email);
+        if (ready) {
+            return userIndex.find(email);
+        }
+        return userRepository.findByEmail(email)
+                .map(user -> new UserNode(user.getEmail(), user.getPassword(), user.getName(), user.getId()))
+                .orElse(null);
     }
 
     /**
@@ -62,7 +288,7 @@ public class AVLUserService {
      * @param userNode O nó do usuário a ser adicionado.
      */
     public void addUserToAVL(UserNode userNode) {
-        userAVLTree.insert(userNode.getEmail(), userNode);
+        applyChange(() -> userIndex.put(userNode));
     }
 
     /**
@@ -71,14 +297,210 @@ public class AVLUserService {
      * @param email O email do usuário a ser removido.
      */
     public void removeUserFromAVL(String email) {
-        userAVLTree.delete(email);
+        applyChange(() -> userIndex.remove(email));
+    }
+
+    /**
+     * Busca uma página dos usuários com email no intervalo [from, to), em ordem de email.
+     * A busca usa apenas o índice: o intervalo é localizado e contado em tempo logarítmico.
+     *
+     * @param from   O email inicial (inclusivo), ou null para começar do primeiro usuário.
+     * @param to     O email final (exclusivo), ou null para ir até o último usuário.
+     * @param offset A posição do primeiro usuário da página no intervalo.
+     * @param limit  O número máximo de usuários da página.
+     * @return A página de usuários e o total do intervalo.
+     * @throws IllegalStateException Se o índice ainda estiver sendo carregado.
+     */
+    public UserPage findUsersInRange(String from, String to, int offset, int limit) {
+        return findPage(from == null ? null : UserNode.encode(from), to == null ? null : UserNode.encode(to), offset, limit);
+    }
+
+    /**
+     * Busca uma página dos usuários cujo email começa com um prefixo, em ordem de email.
+     * O prefixo é convertido no intervalo de chaves que o contém, localizado e contado em tempo logarítmico.
+     *
+     * @param prefix O prefixo do email (diferencia maiúsculas de minúsculas).
+     * @param offset A posição do primeiro usuário da página no resultado.
+     * @param limit  O número máximo de usuários da página.
+     * @return A página de usuários e o total de usuários com o prefixo.
+     * @throws IllegalStateException Se o índice ainda estiver sendo carregado.
+     */
+    public UserPage findUsersByPrefix(String prefix, int offset, int limit) {
+        byte[] from = UserNode.encode(prefix);
+        return findPage(from, prefixUpperBound(from), offset, limit);
+    }
+
+    /**
+     * Busca uma página dos usuários de um domínio de email, em ordem de email.
+     * O índice é ordenado pelo início do email, então a busca percorre os usuários em memória, sem
+     * consultar o banco, até completar a página; só percorre o índice inteiro se o total for pedido.
+     * A comparação do domínio ignora maiúsculas e minúsculas ASCII.
+     *
+     * @param domain       O domínio, com ou sem "@".
+     * @param offset       A posição do primeiro usuário da página no resultado.
+     * @param limit        O número máximo de usuários da página.
+     * @param includeTotal Indica se o total de usuários do domínio deve ser contado.
+     * @return A página de usuários e, se pedido, o total de usuários do domínio.
+     * @throws IllegalStateException Se o índice ainda estiver sendo carregado.
+     */
+    public UserPage findUsersByDomain(String domain, int offset, int limit, boolean includeTotal) {
+        checkReady();
+        byte[] suffix = UserNode.encode(domain.startsWith("@") ? domain : "@" + domain);
+        List<UserNode> users = new ArrayList<>();
+        int total = userIndex.forEachWithEmailSuffix(suffix, offset, limit, includeTotal, users::add);
+        return new UserPage(includeTotal ? total : null, users);
     }
 
     /**
-     * Configura o serviço, inicializando a árvore AVL após a construção do bean.
+     * Busca uma página dos usuários com chave no intervalo [from, to). Os limites e a página são
+     * lidos da mesma versão do índice, para que o total e os usuários sejam coerentes entre si.
+     *
+     * @param from   A chave inicial (inclusiva), ou null para começar do primeiro usuário.
+     * @param to     A chave final (exclusiva), ou null para ir até o último usuário.
+     * @param offset A posição do primeiro usuário da página no intervalo.
+     * @param limit  O número máximo de usuários da página.
+     * @return A página de usuários e o total do intervalo.
+     */
+    private UserPage findPage(byte[] from, byte[] to, int offset, int limit) {
+        checkReady();
+        UserIndexView index = userIndex.snapshot();
+        int start = from == null ? 0 : index.rank(from);
+        int end = Math.max(start, to == null ? index.size() : index.rank(to));
+        List<UserNode> users = new ArrayList<>();
+        if (offset < end - start) {
+            index.forEachFrom(start + offset, Math.min(limit, end - start - offset), users::add);
+        }
+        return new UserPage(end - start, users);
+    }
+
+    /**
+     * Calcula o menor limite superior das chaves que começam com um prefixo: o prefixo sem os bytes
+     * 0xFF finais, com o último byte incrementado.
+     *
+     * @param prefix Os bytes do prefixo.
+     * @return O limite superior exclusivo, ou null se não houver limite (prefixo vazio ou só com 0xFF).
+     */
+    private static byte[] prefixUpperBound(byte[] prefix) {
+        int length = prefix.length;
+        while (length > 0 && prefix[length - 1] == (byte) 0xFF) {
+            length--;
+        }
+        if (length == 0) {
+            return null;
+        }
+        byte[] bound = Arrays.copyOf(prefix, length);
+        bound[length - 1]++;
+        return bound;
+    }
+
+    /**
+     * Garante que o índice esteja carregado antes de uma busca que não pode recorrer ao banco.
+     *
+     * @throws IllegalStateException Se o índice ainda estiver sendo carregado.
+     */
+    private void checkReady() {
+        if (!ready) {
+            throw new IllegalStateException("O índice de usuários ainda está sendo carregado.");
+        }
+    }
+
+    /**
+     * Indica se a árvore AVL já foi totalmente carregada.
+     *
+     * @return true se o índice estiver pronto, false se ainda estiver sendo carregado.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Retorna o instante em que começou a carga do índice.
+     * Alterações confirmadas depois dele podem não estar refletidas no índice.
+     *
+     * @return O instante, em milissegundos desde a época.
+     */
+    public long getLoadStartedAt() {
+        return loadStartedAt;
+    }
+
+    /**
+     * Retorna o número de usuários carregados (do snapshot ou do banco) pela última inicialização.
+     *
+     * @return O número de usuários carregados.
+     */
+    public long getLoadedUsers() {
+        return warmupLoadedUsers.get();
+    }
+
+    /**
+     * Aplica uma alteração na árvore AVL. Enquanto a carga inicial estiver em andamento,
+     * a alteração é guardada e reaplicada sobre a árvore recém-construída.
+     *
+     * @param change A alteração a ser aplicada.
+     */
+    private void applyChange(Runnable change) {
+        if (!ready) {
+            synchronized (warmupLock) {
+                if (!ready) {
+                    pendingChanges.add(change);
+                    return;
+                }
+            }
+        }
+        change.run();
+    }
+
+    /**
+     * Cria o índice conforme o armazenamento configurado e registra as métricas do serviço
+     * após a construção do bean.
+     *
+     * @throws IllegalStateException Se o armazenamento configurado não for {@code heap} nem {@code off-heap}.
      */
     @PostConstruct
     public void setup() {
-        initializeTree();
+        switch (storage) {
+            case "heap" -> userIndex = new AVLUserIndex();
+            case "off-heap" -> {
+                OffHeapUserIndex offHeapUserIndex = new OffHeapUserIndex();
+                userIndex = offHeapUserIndex;
+                Gauge.builder("efficiencynow.user.index.offheap.bytes", offHeapUserIndex, OffHeapUserIndex::getOffHeapBytes)
+                        .description("Memória fora da heap ocupada pelo índice de usuários")
+                        .baseUnit("bytes")
+                        .register(meterRegistry);
+            }
+            default -> throw new IllegalStateException("Armazenamento do índice de usuários inválido: " + storage
+                    + " (use heap ou off-heap).");
+        }
+        Gauge.builder("efficiencynow.user.index.warmup.loaded", warmupLoadedUsers, AtomicLong::get)
+                .description("Usuários carregados durante a inicialização do índice")
+                .register(meterRegistry);
+        warmupTimer = Timer.builder("efficiencynow.user.index.warmup")
+                .description("Tempo de inicialização do índice de usuários")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a carga da árvore AVL em segundo plano assim que a aplicação estiver pronta,
+     * sem bloquear a inicialização. Em caso de falha, a carga é repetida após um intervalo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmup() {
+        Thread warmupThread = new Thread(() -> {
+            while (!ready) {
+                try {
+                    initializeTree();
+                } catch (RuntimeException e) {
+                    System.err.println(e.getMessage() + " Nova tentativa em " + warmupRetryDelayMs + " ms.");
+                    try {
+                        Thread.sleep(warmupRetryDelayMs);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }, "user-index-warmup");
+        warmupThread.setDaemon(true);
+        warmupThread.start();
     }
 }
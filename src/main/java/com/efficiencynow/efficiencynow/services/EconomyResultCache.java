@@ -0,0 +1,143 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.dtos.ACEconomyResultDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache em memória dos resultados de economia de lâmpadas e de ar-condicionado.
+ * <p>
+ * Os aplicativos reenviam com frequência o mesmo inventário; os resultados são guardados pela
+ * entrada normalizada (os mesmos valores padrão aplicados pelos serviços), de modo que entradas
+ * equivalentes compartilham a mesma entrada no cache. O tamanho é limitado e a remoção segue a
+ * política W-TinyLFU do Caffeine. As métricas de acerto e falta são publicadas como
+ * {@code cache.gets}, e o cache pode ser desligado com {@code efficiencynow.economy-cache.enabled=false}.
+ */
+@Service
+public class EconomyResultCache {
+
+    private Cache<LampEconomyKey, Double> lampEconomyCache;
+
+    private Cache<ACEconomyKey, ACEconomyResult> acEconomyCache;
+
+    @Autowired
+    private LampEconomyService lampEconomyService;
+
+    @Autowired
+    private ACEconomyService acEconomyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${efficiencynow.economy-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${efficiencynow.economy-cache.max-size:10000}")
+    private long maxSize;
+
+    /**
+     * Cria os caches, se habilitados, e registra suas métricas.
+     */
+    @PostConstruct
+    public void setup() {
+        if (!enabled) {
+            return;
+        }
+        lampEconomyCache = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        acEconomyCache = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lampEconomyCache, "efficiencynow.economy.lamp");
+        CaffeineCacheMetrics.monitor(meterRegistry, acEconomyCache, "efficiencynow.economy.ac");
+    }
+
+    /**
+     * Obtém a economia percentual total de um inventário de lâmpadas, calculando-a apenas se
+     * ainda não estiver no cache.
+     *
+     * @param fluorescent  Número de lâmpadas fluorescentes.
+     * @param incandescent Número de lâmpadas incandescentes.
+     * @param halogen      Número de lâmpadas halógenas.
+     * @return Economia percentual total.
+     * @see LampEconomyService#calculateTotalEconomy(Integer, Integer, Integer)
+     */
+    public double calculateTotalEconomy(Integer fluorescent, Integer incandescent, Integer halogen) {
+        if (lampEconomyCache == null) {
+            return lampEconomyService.calculateTotalEconomy(fluorescent, incandescent, halogen);
+        }
+        LampEconomyKey key = new LampEconomyKey(
+                fluorescent == null ? 0 : fluorescent,
+                incandescent == null ? 0 : incandescent,
+                halogen == null ? 0 : halogen
+        );
+        return lampEconomyCache.get(key, k -> lampEconomyService.calculateTotalEconomy(k.fluorescent, k.incandescent, k.halogen));
+    }
+
+    /**
+     * Obtém a economia mensal de uma configuração de ar-condicionado, calculando-a apenas se
+     * ainda não estiver no cache. O cache guarda um registro imutável e cada chamada recebe seu próprio DTO.
+     *
+     * @param numberOfAirConditioners Quantidade de aparelhos.
+     * @param btu                     Potência em BTUs.
+     * @param temperature             Temperatura em graus Celsius.
+     * @param hoursPerDay             Horas de uso diário.
+     * @param costPerKWh              Custo do kWh.
+     * @return O resultado com os custos mensais e a porcentagem de economia.
+     * @throws IllegalArgumentException Se o valor de BTU fornecido não for suportado.
+     * @see ACEconomyService#calcMonthlyEconomy(int, int, double, int, double)
+     */
+    public ACEconomyResultDTO calcMonthlyEconomy(int numberOfAirConditioners, int btu, double temperature,
+                                                 int hoursPerDay, double costPerKWh) {
+        if (acEconomyCache == null) {
+            return acEconomyService.calcMonthlyEconomy(numberOfAirConditioners, btu, temperature, hoursPerDay, costPerKWh);
+        }
+        ACEconomyKey key = new ACEconomyKey(
+                numberOfAirConditioners,
+                btu,
+                temperature,
+                acEconomyService.normalizeHoursPerDay(hoursPerDay),
+                acEconomyService.normalizeCostPerKWh(costPerKWh)
+        );
+        // BTUs não suportados lançam IllegalArgumentException dentro do cálculo e nada é guardado.
+        ACEconomyResult result = acEconomyCache.get(key, k -> ACEconomyResult.of(acEconomyService.calcMonthlyEconomy(
+                k.numberOfAirConditioners, k.btu, k.temperature, k.hoursPerDay, k.costPerKWh)));
+        return result.toDTO();
+    }
+
+    /**
+     * Chave normalizada de um inventário de lâmpadas.
+     */
+    private record LampEconomyKey(int fluorescent, int incandescent, int halogen) {
+    }
+
+    /**
+     * Chave normalizada de uma configuração de ar-condicionado.
+     */
+    private record ACEconomyKey(int numberOfAirConditioners, int btu, double temperature, int hoursPerDay,
+                                double costPerKWh) {
+    }
+
+    /**
+     * Resultado imutável de um cálculo de economia de ar-condicionado, guardado no cache.
+     */
+    private record ACEconomyResult(double currentMonthlyCost, double idealMonthlyCost, double monthlyEconomyPercentage) {
+
+        /**
+         * @return O registro com os valores do DTO calculado pelo serviço.
+         */
+        static ACEconomyResult of(ACEconomyResultDTO dto) {
+            return new ACEconomyResult(dto.getCurrentMonthlyCost(), dto.getIdealMonthlyCost(), dto.getMonthlyEconomyPercentage());
+        }
+
+        /**
+         * @return Um novo DTO com os valores do registro, para uma resposta.
+         */
+        ACEconomyResultDTO toDTO() {
+            return new ACEconomyResultDTO(currentMonthlyCost, idealMonthlyCost, monthlyEconomyPercentage);
+        }
+    }
+}
@@ -1,10 +1,8 @@
 package com.efficiencynow.efficiencynow.services;
 
+import com.efficiencynow.efficiencynow.utils.MathUtils;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 /**
  * Serviço responsável por calcular a economia de energia ao substituir lâmpadas
  * fluorescentes, incandescentes e halógenas por lâmpadas de LED.
@@ -31,9 +29,7 @@ public class LampEconomyService {
         double previousConsumption = numberOfFluorescentLamps * FLUORESCENT_POWER;
         double currentConsumption = numberOfFluorescentLamps * LED_POWER;
         double economy = previousConsumption - currentConsumption;
-        return BigDecimal.valueOf((economy / previousConsumption) * 100)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        return MathUtils.roundToTwoDecimals((economy / previousConsumption) * 100);
     }
 
     /**
@@ -49,9 +45,7 @@ public class LampEconomyService {
         double previousConsumption = numberOfIncandescentLamps * INCANDESCENT_POWER;
         double currentConsumption = numberOfIncandescentLamps * LED_POWER;
         double economy = previousConsumption - currentConsumption;
-        return BigDecimal.valueOf((economy / previousConsumption) * 100)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        return MathUtils.roundToTwoDecimals((economy / previousConsumption) * 100);
     }
 
     /**
@@ -67,9 +61,7 @@ public class LampEconomyService {
         double previousConsumption = numberOfHalogenLamps * HALOGEN_POWER;
         double currentConsumption = numberOfHalogenLamps * LED_POWER;
         double economy = previousConsumption - currentConsumption;
-        return BigDecimal.valueOf((economy / previousConsumption) * 100)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        return MathUtils.roundToTwoDecimals((economy / previousConsumption) * 100);
     }
 
     /**
@@ -98,8 +90,44 @@ public class LampEconomyService {
         double totalEconomy = ((fluorescent * fluorescentEconomy) +
                 (incandescent * incandescentEconomy) +
                 (halogen * halogenEconomy)) / totalLamps;
-        return BigDecimal.valueOf(totalEconomy)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        return MathUtils.roundToTwoDecimals(totalEconomy);
+    }
+
+    /**
+     * Calcula a economia percentual total para várias linhas de uma só vez, a partir de vetores
+     * de quantidades (uma posição por linha), gravando o resultado de cada linha em {@code output}.
+     * Produz exatamente o mesmo valor que {@link #calculateTotalEconomy(Integer, Integer, Integer)}
+     * para cada linha.
+     * <p>
+     * A economia de cada tipo de lâmpada não depende da quantidade, por isso é calculada uma única vez.
+     * O laço principal contém apenas aritmética sobre vetores primitivos, sem desvios, permitindo que
+     * o JIT o vetorize; o arredondamento é feito em uma segunda passagem.
+     *
+     * @param fluorescent  Quantidades de lâmpadas fluorescentes.
+     * @param incandescent Quantidades de lâmpadas incandescentes.
+     * @param halogen      Quantidades de lâmpadas halógenas.
+     * @param output       Vetor que recebe a economia percentual total de cada linha.
+     * @throws IllegalArgumentException Se os vetores não tiverem o mesmo tamanho.
+     */
+    public void calculateTotalEconomy(int[] fluorescent, int[] incandescent, int[] halogen, double[] output) {
+        int rows = output.length;
+        if (fluorescent.length != rows || incandescent.length != rows || halogen.length != rows) {
+            throw new IllegalArgumentException("Os vetores de entrada e de saída devem ter o mesmo tamanho.");
+        }
+
+        double fluorescentEconomy = calcFluorescentToLedEconomy(1);
+        double incandescentEconomy = calcIncandescentToLedEconomy(1);
+        double halogenEconomy = calcHalogenToLedEconomy(1);
+
+        for (int i = 0; i < rows; i++) {
+            int totalLamps = fluorescent[i] + incandescent[i] + halogen[i];
+            double weightedEconomy = (fluorescent[i] * fluorescentEconomy) +
+                    (incandescent[i] * incandescentEconomy) +
+                    (halogen[i] * halogenEconomy);
+            output[i] = totalLamps == 0 ? 0.0 : weightedEconomy / totalLamps;
+        }
+        for (int i = 0; i < rows; i++) {
+            output[i] = MathUtils.roundToTwoDecimals(output[i]);
+        }
     }
 }
@@ -0,0 +1,134 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.Exceptions.Exceptions.ServiceOverloadedException;
+import com.efficiencynow.efficiencynow.utils.PasswordEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serviço que executa o hash e a verificação de senhas (BCrypt) em um pool de threads dedicado.
+ * <p>
+ * O BCrypt consome dezenas de milissegundos de CPU por operação; executá-lo nas threads do servidor
+ * faz com que uma rajada de logins bloqueie todos os outros endpoints. O pool tem uma thread por
+ * núcleo e uma fila limitada: quando a fila enche, a operação é recusada imediatamente com
+ * {@link ServiceOverloadedException} em vez de acumular requisições.
+ */
+@Service
+public class PasswordHashingService {
+
+    private ThreadPoolExecutor executor;
+
+    private Counter rejectedTasks;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${efficiencynow.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${efficiencynow.password-hashing.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${efficiencynow.password-hashing.bcrypt-strength:" + PasswordEncoder.DEFAULT_STRENGTH + "}")
+    private int bcryptStrength;
+
+    /**
+     * Configura o custo do BCrypt, cria o pool de threads e registra suas métricas.
+     */
+    @PostConstruct
+    public void setup() {
+        PasswordEncoder.setStrength(bcryptStrength);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("efficiencynow.password.hashing.queued", executor, pool -> pool.getQueue().size())
+                .description("Operações de senha aguardando na fila")
+                .register(meterRegistry);
+        rejectedTasks = Counter.builder("efficiencynow.password.hashing.rejected")
+                .description("Operações de senha recusadas por sobrecarga")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifica de forma assíncrona se a senha corresponde ao hash.
+     *
+     * @param password        A senha em texto simples.
+     * @param encodedPassword A senha hasheada.
+     * @return Um futuro com true se as senhas corresponderem, false caso contrário.
+     */
+    public CompletableFuture<Boolean> checkPassword(String password, String encodedPassword) {
+        return submit(() -> PasswordEncoder.checkPassword(password, encodedPassword));
+    }
+
+    /**
+     * Faz o hash da senha de forma assíncrona.
+     *
+     * @param password A senha a ser hasheada.
+     * @return Um futuro com a senha hasheada.
+     */
+    public CompletableFuture<String> encodePassword(String password) {
+        return submit(() -> PasswordEncoder.encodePassword(password));
+    }
+
+    /**
+     * Refaz o hash de uma senha já aceita anteriormente usando o custo configurado, de forma assíncrona.
+     *
+     * @param password A senha em texto simples.
+     * @return Um futuro com a nova senha hasheada.
+     */
+    public CompletableFuture<String> rehashPassword(String password) {
+        return submit(() -> PasswordEncoder.rehashPassword(password));
+    }
+
+    /**
+     * Submete uma tarefa ao pool de threads.
+     *
+     * @param task A tarefa a ser executada.
+     * @return Um futuro com o resultado, ou já concluído com {@link ServiceOverloadedException} se a fila estiver cheia.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.increment();
+            return CompletableFuture.failedFuture(
+                    new ServiceOverloadedException("Muitas requisições de autenticação. Tente novamente em instantes."));
+        }
+    }
+
+    /**
+     * Encerra o pool de threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,332 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.dtos.ACEconomyDTO;
+import com.efficiencynow.efficiencynow.dtos.ACEconomyResultDTO;
+import com.efficiencynow.efficiencynow.dtos.LampEconomyDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioBuildingDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioCategoryDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioSummaryDTO;
+import com.efficiencynow.efficiencynow.utils.MathUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serviço que agrega a economia de energia de uma carteira de edifícios, com totais, percentis
+ * e detalhamento por categoria.
+ * <p>
+ * Os edifícios são divididos em tarefas fork-join executadas em um pool dedicado, para não disputar
+ * o pool comum da JVM. A divisão depende apenas das posições na lista e os resultados parciais são
+ * sempre combinados da esquerda para a direita, de modo que as somas em ponto flutuante são feitas
+ * na mesma ordem em toda execução: o resultado é determinístico, independentemente do número de
+ * threads e do escalonamento.
+ */
+@Service
+public class PortfolioAggregationService {
+
+    // Quantidade de edifícios a partir da qual uma tarefa é dividida em duas.
+    private static final int SEQUENTIAL_THRESHOLD = 2048;
+
+    private ForkJoinPool pool;
+
+    @Autowired
+    private LampEconomyService lampEconomyService;
+
+    @Autowired
+    private ACEconomyService acEconomyService;
+
+    @Value("${efficiencynow.portfolio.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Cria o pool fork-join usado nas agregações.
+     */
+    @PostConstruct
+    public void setup() {
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        pool = new ForkJoinPool(
+                poolSize,
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                    thread.setName("portfolio-aggregation-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                null,
+                false
+        );
+    }
+
+    /**
+     * Agrega a economia de energia de uma carteira de edifícios.
+     *
+     * @param buildings Os edifícios da carteira.
+     * @return Os totais da carteira, os percentis da economia mensal de ar-condicionado por edifício
+     * e os totais por categoria.
+     * @throws IllegalArgumentException Se algum edifício tiver um valor de BTU não suportado.
+     */
+    public PortfolioSummaryDTO aggregate(List<PortfolioBuildingDTO> buildings) {
+        // As categorias recebem índices em ordem alfabética, o que mantém o detalhamento ordenado.
+        Map<String, Integer> categoryIndexes = new TreeMap<>();
+        for (PortfolioBuildingDTO building : buildings) {
+            categoryIndexes.put(building.getCategory(), 0);
+        }
+        String[] categoryNames = categoryIndexes.keySet().toArray(new String[0]);
+        for (int i = 0; i < categoryNames.length; i++) {
+            categoryIndexes.put(categoryNames[i], i);
+        }
+
+        // Economia mensal de ar-condicionado de cada edifício; NaN para edifícios sem ar-condicionado.
+        double[] monthlySavings = new double[buildings.size()];
+        PortfolioTotals totals = pool.invoke(new AggregationTask(
+                buildings, categoryIndexes, monthlySavings, 0, buildings.size()));
+
+        // Submetido ao pool, o sort paralelo usa as threads deste pool. Os NaN ficam no fim do vetor.
+        pool.submit(() -> Arrays.parallelSort(monthlySavings)).join();
+        int airConditionedBuildings = (int) totals.airConditionedBuildings();
+
+        Map<String, PortfolioCategoryDTO> categories = new LinkedHashMap<>();
+        for (int i = 0; i < categoryNames.length; i++) {
+            categories.put(categoryNames[i], totals.toCategory(i));
+        }
+        PortfolioCategoryDTO total = totals.toTotal(categoryNames.length);
+        double monthlyEconomyPercentage = total.getCurrentMonthlyCost() == 0 ? 0.0
+                : MathUtils.roundToTwoDecimals(total.getMonthlySavings() / total.getCurrentMonthlyCost() * 100);
+
+        return new PortfolioSummaryDTO(
+                total,
+                monthlyEconomyPercentage,
+                percentile(monthlySavings, airConditionedBuildings, 50),
+                percentile(monthlySavings, airConditionedBuildings, 90),
+                percentile(monthlySavings, airConditionedBuildings, 99),
+                categories
+        );
+    }
+
+    /**
+     * Calcula um percentil pelo método do posto mais próximo.
+     *
+     * @param sorted     Os valores em ordem crescente.
+     * @param count      Quantos valores do início do vetor participam do cálculo.
+     * @param percentile O percentil desejado, entre 0 e 100.
+     * @return O valor do percentil, ou 0 se não houver valores.
+     */
+    private static double percentile(double[] sorted, int count, int percentile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return MathUtils.roundToTwoDecimals(sorted[Math.max(rank, 1) - 1]);
+    }
+
+    private static long count(Integer numberOfLamps) {
+        return numberOfLamps == null ? 0 : numberOfLamps;
+    }
+
+    /**
+     * Encerra o pool fork-join.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Tarefa que calcula a economia de um intervalo de edifícios, dividindo-o ao meio enquanto
+     * for maior que {@link #SEQUENTIAL_THRESHOLD}.
+     */
+    private class AggregationTask extends RecursiveTask<PortfolioTotals> {
+        private final List<PortfolioBuildingDTO> buildings;
+        private final Map<String, Integer> categoryIndexes;
+        private final double[] monthlySavings;
+        private final int from;
+        private final int to;
+
+        AggregationTask(List<PortfolioBuildingDTO> buildings, Map<String, Integer> categoryIndexes,
+                        double[] monthlySavings, int from, int to) {
+            this.buildings = buildings;
+            this.categoryIndexes = categoryIndexes;
+            this.monthlySavings = monthlySavings;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PortfolioTotals compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return computeSequentially();
+            }
+            int mid = (from + to) >>> 1;
+            AggregationTask left = new AggregationTask(buildings, categoryIndexes, monthlySavings, from, mid);
+            AggregationTask right = new AggregationTask(buildings, categoryIndexes, monthlySavings, mid, to);
+            right.fork();
+            PortfolioTotals totals = left.compute();
+            totals.merge(right.join());
+            return totals;
+        }
+
+        /**
+         * Calcula a economia de cada edifício do intervalo e acumula os totais.
+         *
+         * @return Os totais do intervalo.
+         */
+        private PortfolioTotals computeSequentially() {
+            PortfolioTotals totals = new PortfolioTotals();
+            for (int i = from; i < to; i++) {
+                PortfolioBuildingDTO building = buildings.get(i);
+                int category = categoryIndexes.get(building.getCategory());
+
+                long lamps = 0;
+                double lampEconomy = 0.0;
+                LampEconomyDTO lampEconomyDTO = building.getLampEconomy();
+                if (lampEconomyDTO != null) {
+                    lamps = count(lampEconomyDTO.getNumberOfFluorescentLamps())
+                            + count(lampEconomyDTO.getNumberOfIncandescentLamps())
+                            + count(lampEconomyDTO.getNumberOfHalogenLamps());
+                    lampEconomy = lampEconomyService.calculateTotalEconomy(
+                            lampEconomyDTO.getNumberOfFluorescentLamps(),
+                            lampEconomyDTO.getNumberOfIncandescentLamps(),
+                            lampEconomyDTO.getNumberOfHalogenLamps()
+                    );
+                }
+
+                ACEconomyDTO acEconomyDTO = building.getAcEconomy();
+                if (acEconomyDTO != null) {
+                    ACEconomyResultDTO result = acEconomyService.calcMonthlyEconomy(
+                            acEconomyDTO.getNumberOfAirConditioners(),
+                            acEconomyDTO.getBtu(),
+                            acEconomyDTO.getTemperature(),
+                            acEconomyDTO.getHoursPerDay(),
+                            acEconomyDTO.getCostPerKWh()
+                    );
+                    totals.addAirConditioning(category, result.getCurrentMonthlyCost(), result.getIdealMonthlyCost());
+                    monthlySavings[i] = result.getCurrentMonthlyCost() - result.getIdealMonthlyCost();
+                } else {
+                    monthlySavings[i] = Double.NaN;
+                }
+                totals.addBuilding(category, lamps, lampEconomy);
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Acumula, por categoria, os totais de um intervalo de edifícios.
+     * <p>
+     * Só as categorias presentes no intervalo têm acumulador, de modo que a memória das tarefas é
+     * proporcional ao número de edifícios, e não ao número de tarefas vezes o número de categorias.
+     */
+    private static class PortfolioTotals {
+        private final Map<Integer, CategoryTotals> categories = new HashMap<>();
+
+        void addBuilding(int category, long lamps, double lampEconomy) {
+            CategoryTotals totals = categories.computeIfAbsent(category, c -> new CategoryTotals());
+            totals.buildings++;
+            totals.totalLamps += lamps;
+            totals.weightedLampEconomy += lamps * lampEconomy;
+        }
+
+        void addAirConditioning(int category, double currentCost, double idealCost) {
+            CategoryTotals totals = categories.computeIfAbsent(category, c -> new CategoryTotals());
+            totals.airConditionedBuildings++;
+            totals.currentMonthlyCost += currentCost;
+            totals.idealMonthlyCost += idealCost;
+        }
+
+        /**
+         * Soma aos totais os de um intervalo imediatamente à direita deste.
+         * Os acumuladores do outro intervalo podem ser reaproveitados, pois ele é descartado em seguida.
+         *
+         * @param other Os totais do intervalo à direita.
+         */
+        void merge(PortfolioTotals other) {
+            other.categories.forEach((category, otherTotals) -> {
+                CategoryTotals totals = categories.putIfAbsent(category, otherTotals);
+                if (totals != null) {
+                    totals.merge(otherTotals);
+                }
+            });
+        }
+
+        long airConditionedBuildings() {
+            long total = 0;
+            for (CategoryTotals totals : categories.values()) {
+                total += totals.airConditionedBuildings;
+            }
+            return total;
+        }
+
+        PortfolioCategoryDTO toCategory(int category) {
+            CategoryTotals totals = categories.getOrDefault(category, new CategoryTotals());
+            return toCategory(totals.buildings, totals.totalLamps, totals.weightedLampEconomy,
+                    totals.currentMonthlyCost, totals.idealMonthlyCost);
+        }
+
+        /**
+         * Soma os totais de todas as categorias, na ordem dos índices, para que o resultado seja determinístico.
+         *
+         * @param categoryCount O número de categorias da carteira.
+         * @return Os totais da carteira.
+         */
+        PortfolioCategoryDTO toTotal(int categoryCount) {
+            CategoryTotals all = new CategoryTotals();
+            for (int i = 0; i < categoryCount; i++) {
+                CategoryTotals totals = categories.get(i);
+                if (totals != null) {
+                    all.merge(totals);
+                }
+            }
+            return toCategory(all.buildings, all.totalLamps, all.weightedLampEconomy,
+                    all.currentMonthlyCost, all.idealMonthlyCost);
+        }
+
+        private static PortfolioCategoryDTO toCategory(long buildings, long totalLamps, double weightedLampEconomy,
+                                                       double currentMonthlyCost, double idealMonthlyCost) {
+            double lampEconomyPercentage = totalLamps == 0 ? 0.0
+                    : MathUtils.roundToTwoDecimals(weightedLampEconomy / totalLamps);
+            return new PortfolioCategoryDTO(
+                    buildings,
+                    totalLamps,
+                    lampEconomyPercentage,
+                    MathUtils.roundToTwoDecimals(currentMonthlyCost),
+                    MathUtils.roundToTwoDecimals(idealMonthlyCost),
+                    MathUtils.roundToTwoDecimals(currentMonthlyCost - idealMonthlyCost)
+            );
+        }
+    }
+
+    /**
+     * Totais de uma categoria em um intervalo de edifícios.
+     */
+    private static class CategoryTotals {
+        private long buildings;
+        private long airConditionedBuildings;
+        private long totalLamps;
+        private double weightedLampEconomy;
+        private double currentMonthlyCost;
+        private double idealMonthlyCost;
+
+        void merge(CategoryTotals other) {
+            buildings += other.buildings;
+            airConditionedBuildings += other.airConditionedBuildings;
+            totalLamps += other.totalLamps;
+            weightedLampEconomy += other.weightedLampEconomy;
+            currentMonthlyCost += other.currentMonthlyCost;
+            idealMonthlyCost += other.idealMonthlyCost;
+        }
+    }
+}
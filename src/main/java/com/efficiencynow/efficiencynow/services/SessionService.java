@@ -0,0 +1,250 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.utils.SessionTokenCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serviço que armazena as sessões ativas em memória, com expiração e tamanho máximo.
+ * <p>
+ * Como todas as sessões têm a mesma duração, a ordem de criação é também a ordem de expiração:
+ * uma fila em ordem de criação permite remover as sessões expiradas (varredura periódica) e as
+ * mais antigas (quando o limite de tamanho é atingido) sem percorrer todo o mapa.
+ * <p>
+ * Com {@code efficiencynow.session.mode=signed}, as sessões deixam de ser guardadas: o token é
+ * autocontido e assinado com o segredo {@code efficiencynow.session.secret} (veja {@link SessionTokenCodec}),
+ * de modo que qualquer instância que compartilhe o segredo valida a sessão sem consultar mapas, e as
+ * sessões sobrevivem a reinícios. Apenas os tokens encerrados por logout ficam em memória, até expirarem;
+ * essa lista de revogação é local a cada instância.
+ */
+@Service
+public class SessionService {
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Session> expirationQueue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger expirationQueueSize = new AtomicInteger();
+
+    // Tokens assinados revogados por logout, com o instante de expiração em segundos.
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // Presente apenas no modo de tokens assinados.
+    private SessionTokenCodec tokenCodec;
+
+    // Relógio usado nas expirações; substituível nos testes.
+    private Clock clock = Clock.systemUTC();
+
+    private Counter expiredEvictions;
+
+    private Counter capacityEvictions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${efficiencynow.session.ttl-seconds:604800}")
+    private long ttlSeconds;
+
+    @Value("${efficiencynow.session.max-size:100000}")
+    private int maxSize;
+
+    @Value("${efficiencynow.session.mode:memory}")
+    private String mode;
+
+    @Value("${efficiencynow.session.secret:}")
+    private String secret;
+
+    /**
+     * Configura o modo de sessão e registra as métricas de ocupação e remoção de sessões.
+     *
+     * @throws IllegalStateException Se o modo for desconhecido ou se o segredo não for configurado no modo assinado.
+     */
+    @PostConstruct
+    public void setup() {
+        if ("signed".equals(mode)) {
+            if (secret.isBlank()) {
+                throw new IllegalStateException("Configure efficiencynow.session.secret para usar efficiencynow.session.mode=signed.");
+            }
+            tokenCodec = new SessionTokenCodec(secret.getBytes(StandardCharsets.UTF_8));
+        } else if (!"memory".equals(mode)) {
+            throw new IllegalStateException("Modo de sessão desconhecido: " + mode + ". Use memory ou signed.");
+        }
+
+        Gauge.builder("efficiencynow.sessions.active", sessions, ConcurrentHashMap::size)
+                .description("Sessões ativas em memória")
+                .register(meterRegistry);
+        expiredEvictions = Counter.builder("efficiencynow.sessions.evictions")
+                .tag("reason", "expired")
+                .description("Sessões removidas por expiração")
+                .register(meterRegistry);
+        capacityEvictions = Counter.builder("efficiencynow.sessions.evictions")
+                .tag("reason", "capacity")
+                .description("Sessões removidas por excesso de sessões ativas")
+                .register(meterRegistry);
+        Gauge.builder("efficiencynow.sessions.revoked", revokedTokens, ConcurrentHashMap::size)
+                .description("Tokens assinados revogados ainda não expirados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cria uma sessão para um usuário. No modo em memória, gera um token aleatório e armazena a sessão;
+     * no modo assinado, apenas gera o token assinado.
+     *
+     * @param userId O id do usuário.
+     * @param email  O email do usuário.
+     * @return O token da nova sessão.
+     */
+    public String create(long userId, String email) {
+        if (tokenCodec != null) {
+            return tokenCodec.encode(userId, email, clock.millis() / 1000 + ttlSeconds);
+        }
+        String token = UUID.randomUUID().toString();
+        store(token, email);
+        return token;
+    }
+
+    /**
+     * Armazena uma nova sessão. Se o número máximo de sessões for ultrapassado,
+     * as sessões mais antigas são removidas.
+     *
+     * @param token O token de sessão.
+     * @param email O email do usuário associado à sessão.
+     */
+    private void store(String token, String email) {
+        Session session = new Session(token, email, clock.millis() + ttlSeconds * 1000);
+        sessions.put(token, session);
+        expirationQueue.add(session);
+
+        // Sessões encerradas por logout continuam na fila até chegarem ao início dela;
+        // a compactação ocasional mantém a fila proporcional ao número de sessões ativas.
+        if (expirationQueueSize.incrementAndGet() > 2 * maxSize) {
+            compactExpirationQueue();
+        }
+
+        while (sessions.size() > maxSize) {
+            Session oldest = pollExpirationQueue();
+            if (oldest == null) {
+                break;
+            }
+            if (sessions.remove(oldest.token, oldest)) {
+                capacityEvictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Obtém o email associado a um token de sessão, removendo a sessão se ela já tiver expirado.
+     *
+     * @param token O token de sessão.
+     * @return O email associado à sessão, ou null se a sessão não existir ou tiver expirado.
+     */
+    public String getEmail(String token) {
+        if (tokenCodec != null) {
+            SessionTokenCodec.Claims claims = tokenCodec.decode(token, clock.millis() / 1000);
+            return claims == null || revokedTokens.containsKey(claims.id()) ? null : claims.email();
+        }
+
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.expiresAt <= clock.millis()) {
+            if (sessions.remove(token, session)) {
+                expiredEvictions.increment();
+            }
+            return null;
+        }
+        return session.email;
+    }
+
+    /**
+     * Remove uma sessão.
+     *
+     * @param token O token de sessão.
+     * @return true se a sessão existia e ainda era válida, false caso contrário.
+     */
+    public boolean remove(String token) {
+        if (tokenCodec != null) {
+            SessionTokenCodec.Claims claims = tokenCodec.decode(token, clock.millis() / 1000);
+            return claims != null && revokedTokens.putIfAbsent(claims.id(), claims.expiresAt()) == null;
+        }
+
+        Session session = sessions.remove(token);
+        return session != null && session.expiresAt > clock.millis();
+    }
+
+    /**
+     * Retorna a duração das sessões.
+     *
+     * @return A duração das sessões em segundos.
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Remove periodicamente as sessões expiradas do início da fila de expiração
+     * e as revogações de tokens que já expiraram.
+     */
+    @Scheduled(fixedDelayString = "${efficiencynow.session.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        long now = clock.millis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now / 1000);
+
+        Session head;
+        while ((head = expirationQueue.peek()) != null && head.expiresAt <= now) {
+            Session expired = pollExpirationQueue();
+            if (expired != null && sessions.remove(expired.token, expired)) {
+                expiredEvictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Remove o primeiro elemento da fila de expiração.
+     *
+     * @return A sessão mais antiga da fila, ou null se a fila estiver vazia.
+     */
+    private Session pollExpirationQueue() {
+        Session session = expirationQueue.poll();
+        if (session != null) {
+            expirationQueueSize.decrementAndGet();
+        }
+        return session;
+    }
+
+    /**
+     * Remove da fila de expiração as sessões que já não estão ativas.
+     */
+    private synchronized void compactExpirationQueue() {
+        if (expirationQueueSize.get() <= 2 * maxSize) {
+            return;
+        }
+        expirationQueue.removeIf(session -> {
+            if (sessions.get(session.token) != session) {
+                expirationQueueSize.decrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Sessão ativa: token, email do usuário e instante de expiração em milissegundos.
+     */
+    private record Session(String token, String email, long expiresAt) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.entities.UserChangeEntity;
+import com.efficiencynow.efficiencynow.repositories.UserChangeRepository;
+import com.efficiencynow.efficiencynow.repositories.UserProjection;
+import com.efficiencynow.efficiencynow.repositories.UserRepository;
+import com.efficiencynow.efficiencynow.utils.UserNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serviço que mantém o índice de usuários sincronizado com as alterações feitas por outras instâncias.
+ * <p>
+ * As alterações de usuário são registradas na tabela {@code user_changes} na mesma transação que as
+ * produz. Este serviço lê periodicamente, em lotes, as alterações com id maior que a última aplicada
+ * (a marca d'água) e, para cada email alterado, consulta o estado atual do usuário no banco: se ele
+ * existir, é incluído ou substituído no índice; caso contrário, é removido. Como o estado é lido do
+ * banco, aplicar a mesma alteração mais de uma vez, inclusive as feitas por esta instância, não tem
+ * efeito adicional.
+ * <p>
+ * Ids de identidade são reservados antes do commit, então uma transação lenta pode tornar visível uma
+ * alteração com id menor que outra já lida. Por isso a marca d'água não avança além de uma lacuna na
+ * sequência até que ela seja preenchida ou até {@code efficiencynow.user-index.sync.gap-timeout-ms},
+ * depois do qual a lacuna é tratada como uma transação desfeita. Pelo mesmo motivo, a primeira leitura
+ * após a carga do índice começa pelas alterações registradas até esse intervalo antes da carga.
+ */
+@Service
+public class UserIndexSyncService {
+
+    // Marca d'água ainda não inicializada a partir do índice.
+    private static final long NOT_STARTED = -1;
+
+    private volatile long watermark = NOT_STARTED;
+
+    // Primeiro id da lacuna que está bloqueando a marca d'água, e desde quando.
+    private long gapId;
+    private long gapSince;
+
+    private Counter appliedCounter;
+
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AVLUserService avlUserService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${efficiencynow.user-index.sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${efficiencynow.user-index.sync.batch-size:500}")
+    private int batchSize;
+
+    @Value("${efficiencynow.user-index.sync.gap-timeout-ms:10000}")
+    private long gapTimeoutMs;
+
+    @Value("${efficiencynow.user-index.sync.retention-hours:24}")
+    private long retentionHours;
+
+    /**
+     * Registra as métricas do serviço após a construção do bean.
+     */
+    @PostConstruct
+    public void setup() {
+        appliedCounter = Counter.builder("efficiencynow.user.index.sync.applied")
+                .description("Usuários atualizados no índice a partir do registro de alterações")
+                .register(meterRegistry);
+        Gauge.builder("efficiencynow.user.index.sync.watermark", this, UserIndexSyncService::getWatermark)
+                .description("Id da última alteração de usuário aplicada ao índice")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Aplica as alterações pendentes ao índice, em lotes, assim que o índice estiver carregado.
+     * Falhas são registradas e a leitura é retomada do mesmo ponto na próxima execução.
+     */
+    @Scheduled(fixedDelayString = "${efficiencynow.user-index.sync.interval-ms:1000}")
+    public void poll() {
+        if (!enabled || !avlUserService.isReady()) {
+            return;
+        }
+        try {
+            boolean more;
+            do {
+                more = syncBatch(System.currentTimeMillis());
+            } while (more);
+        } catch (RuntimeException e) {
+            System.err.println("Não foi possível sincronizar o índice de usuários: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exclui periodicamente as alterações mais antigas que o período de retenção.
+     */
+    @Scheduled(fixedDelayString = "${efficiencynow.user-index.sync.prune-interval-ms:3600000}")
+    public void prune() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            userChangeRepository.deleteChangedBefore(Instant.now().minus(Duration.ofHours(retentionHours)));
+        } catch (RuntimeException e) {
+            System.err.println("Não foi possível excluir alterações de usuário antigas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lê e aplica um lote de alterações.
+     *
+     * @param now O instante atual, em milissegundos.
+     * @return true se o lote estava cheio e a marca d'água avançou até o fim dele, indicando que
+     * pode haver mais alterações a ler imediatamente.
+     */
+    synchronized boolean syncBatch(long now) {
+        if (watermark == NOT_STARTED) {
+            // Uma transação com id menor que os já visíveis na carga pode ter sido confirmada depois dela.
+            // A leitura recomeça antes das alterações da última janela de lacuna, e reaplicá-las não tem efeito.
+            watermark = userChangeRepository.findMaxIdChangedBefore(
+                    Instant.ofEpochMilli(avlUserService.getLoadStartedAt() - gapTimeoutMs));
+        }
+        List<UserChangeEntity> changes = userChangeRepository.findPageAfterId(watermark, PageRequest.of(0, batchSize));
+        if (changes.isEmpty()) {
+            return false;
+        }
+
+        Set<String> emails = new LinkedHashSet<>();
+        for (UserChangeEntity change : changes) {
+            emails.add(change.getEmail());
+        }
+        Map<String, UserProjection> users = new HashMap<>();
+        for (UserProjection user : userRepository.findAllByEmailIn(emails)) {
+            users.put(user.getEmail(), user);
+        }
+        for (String email : emails) {
+            UserProjection user = users.get(email);
+            if (user == null) {
+                avlUserService.removeUserFromAVL(email);
+            } else {
+                avlUserService.addUserToAVL(new UserNode(user.getEmail(), user.getPassword(), user.getName(), user.getId()));
+            }
+        }
+        appliedCounter.increment(emails.size());
+
+        long last = changes.get(changes.size() - 1).getId();
+        watermark = advanceWatermark(changes, now);
+        return changes.size() == batchSize && watermark == last;
+    }
+
+    /**
+     * Calcula a nova marca d'água: o maior id lido sem lacunas desde a marca atual. As alterações além
+     * de uma lacuna já foram aplicadas e serão aplicadas de novo quando ela for resolvida.
+     *
+     * @param changes As alterações lidas, em ordem crescente de id.
+     * @param now     O instante atual, em milissegundos.
+     * @return A nova marca d'água.
+     */
+    private long advanceWatermark(List<UserChangeEntity> changes, long now) {
+        long next = watermark;
+        for (UserChangeEntity change : changes) {
+            long id = change.getId();
+            if (id != next + 1) {
+                if (gapId != next + 1) {
+                    gapId = next + 1;
+                    gapSince = now;
+                }
+                if (now - gapSince < gapTimeoutMs) {
+                    break;
+                }
+            }
+            next = id;
+        }
+        return next;
+    }
+
+    /**
+     * Retorna o id da última alteração aplicada ao índice.
+     *
+     * @return O id da alteração, ou -1 se a sincronização ainda não começou.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+}
@@ -2,8 +2,11 @@ package com.efficiencynow.efficiencynow.services;
 
 import com.efficiencynow.efficiencynow.Exceptions.Exceptions.AuthException;
 import com.efficiencynow.efficiencynow.Exceptions.Exceptions.DuplicateEmailException;
+import com.efficiencynow.efficiencynow.Exceptions.Exceptions.ServiceOverloadedException;
 import com.efficiencynow.efficiencynow.dtos.UserDTO;
+import com.efficiencynow.efficiencynow.entities.UserChangeEntity;
 import com.efficiencynow.efficiencynow.entities.UserEntity;
+import com.efficiencynow.efficiencynow.repositories.UserChangeRepository;
 import com.efficiencynow.efficiencynow.repositories.UserRepository;
 import com.efficiencynow.efficiencynow.utils.PasswordEncoder;
 import com.efficiencynow.efficiencynow.utils.Populator;
@@ -11,74 +14,146 @@ import com.efficiencynow.efficiencynow.utils.UserNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Serviço para gerenciar operações relacionadas a usuários.
+ * Toda alteração de usuário é registrada em {@link UserChangeEntity}, de onde as demais instâncias
+ * atualizam seus índices (veja {@link UserIndexSyncService}).
  */
 @Service
 public class UserService {
 
+    private static final String DUPLICATE_EMAIL_MESSAGE = "O email fornecido já está em uso. Escolha outro para continuar o cadastro.";
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
     @Autowired
     private AVLUserService avlUserService;
 
-    private ConcurrentHashMap<String, String> activeSessions = new ConcurrentHashMap<>();
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     /**
      * Registra um novo usuário.
+     * O hash da senha é feito antes de a transação ser aberta, para que nenhuma conexão com o banco
+     * fique presa enquanto o BCrypt aguarda na fila do {@link PasswordHashingService}.
      *
      * @param userDTO Os dados do usuário a ser registrado.
      * @return O objeto UserDTO do usuário registrado.
      */
-    @Transactional
     public UserDTO registerUser(UserDTO userDTO) {
-        UserEntity userEntity = Populator.toEntity(userDTO);
+        if (userRepository.findByEmail(userDTO.getEmail()).isPresent()) {
+            throw new DuplicateEmailException(DUPLICATE_EMAIL_MESSAGE);
+        }
+
+        String passwordHash;
+        try {
+            passwordHash = passwordHashingService.encodePassword(userDTO.getPassword()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        return transactionTemplate.execute(status -> saveUser(userDTO, passwordHash));
+    }
 
+    /**
+     * Grava um novo usuário e registra a alteração, dentro da transação do cadastro.
+     * O email é verificado de novo, pois outro cadastro pode ter sido concluído durante o hash.
+     *
+     * @param userDTO      Os dados do usuário a ser registrado.
+     * @param passwordHash A senha já hasheada.
+     * @return O objeto UserDTO do usuário registrado.
+     */
+    private UserDTO saveUser(UserDTO userDTO, String passwordHash) {
         if (userRepository.findByEmail(userDTO.getEmail()).isPresent()) {
-            throw new DuplicateEmailException("O email fornecido já está em uso. Escolha outro para continuar o cadastro.");
+            throw new DuplicateEmailException(DUPLICATE_EMAIL_MESSAGE);
         }
 
-        userEntity.setPassword(PasswordEncoder.encodePassword(userDTO.getPassword()));
+        UserEntity userEntity = Populator.toEntity(userDTO);
+        userEntity.setPassword(passwordHash);
 
         UserEntity savedUser = userRepository.save(userEntity);
+        userChangeRepository.save(new UserChangeEntity(savedUser.getEmail()));
         return Populator.toModel(savedUser);
     }
 
     /**
      * Realiza o login de um usuário.
+     * A verificação da senha é feita no pool dedicado do {@link PasswordHashingService},
+     * liberando a thread da requisição enquanto o BCrypt é executado.
      *
      * @param userDTO O DTO do usuário contendo email e senha.
-     * @return O objeto UserDTO do usuário logado, contendo o token de sessão.
-     * @throws AuthException Se o email ou a senha forem inválidos.
+     * @return Um futuro com o objeto UserDTO do usuário logado, contendo o token de sessão. O futuro falha com
+     * {@link AuthException} se o email ou a senha forem inválidos, ou com
+     * {@link ServiceOverloadedException} se o pool de verificação estiver sobrecarregado.
      */
-    public UserDTO login(UserDTO userDTO) {
+    public CompletableFuture<UserDTO> login(UserDTO userDTO) {
         UserNode userNode = avlUserService.findUserByEmail(userDTO.getEmail());
-        if (userNode == null || !PasswordEncoder.checkPassword(userDTO.getPassword(), userNode.getPasswordHash())) {
-            throw new AuthException("E-mail ou senha inválidos.");
+        if (userNode == null) {
+            return CompletableFuture.failedFuture(new AuthException("E-mail ou senha inválidos."));
         }
 
-        String token = UUID.randomUUID().toString();
+        return passwordHashingService.checkPassword(userDTO.getPassword(), userNode.getPasswordHash())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new AuthException("E-mail ou senha inválidos.");
+                    }
+
+                    String token = sessionService.create(userNode.getId(), userNode.getEmail());
 
-        userNode.setToken(token);
-        userDTO.setToken(token);
+                    userDTO.setToken(token);
 
-        storeSessionToken(token, userNode.getEmail());
-        return userDTO;
+                    if (PasswordEncoder.needsRehash(userNode.getPasswordHash())) {
+                        upgradePasswordHash(userNode, userDTO.getPassword());
+                    }
+                    return userDTO;
+                });
     }
 
     /**
-     * Obtém o email associado a um token de sessão.
+     * Refaz, em segundo plano, o hash de senha de um usuário gerado com um custo diferente do configurado,
+     * atualizando o banco de dados e a árvore AVL. O login não espera por esta operação; se ela falhar
+     * ou o pool estiver sobrecarregado, o hash será atualizado em um próximo login.
      *
-     * @param sessionToken O token de sessão.
-     * @return O email associado ao token de sessão, ou null se o token não for encontrado.
+     * @param userNode O nó do usuário autenticado.
+     * @param password A senha em texto simples, já verificada.
      */
-    public String getEmailFromSession(String sessionToken) {
-        return activeSessions.get(sessionToken);
+    private void upgradePasswordHash(UserNode userNode, String password) {
+        passwordHashingService.rehashPassword(password)
+                .thenAccept(passwordHash -> {
+                    if (userRepository.updatePasswordByEmail(userNode.getEmail(), passwordHash) > 0) {
+                        // Fora de transação: se o registro falhar, as demais instâncias mantêm o hash
+                        // anterior, que continua válido para a mesma senha.
+                        userChangeRepository.save(new UserChangeEntity(userNode.getEmail()));
+                        avlUserService.addUserToAVL(new UserNode(
+                                userNode.getEmail(),
+                                passwordHash,
+                                userNode.getName(),
+                                userNode.getId()
+                        ));
+                    }
+                })
+                .exceptionally(e -> {
+                    System.err.println("Não foi possível atualizar o hash de senha de " + userNode.getEmail() + ": " + e.getMessage());
+                    return null;
+                });
     }
 
     /**
@@ -88,23 +163,11 @@ public class UserService {
      * @throws AuthException Se o token de sessão for inválido ou já estiver encerrado.
      */
     public void logout(String sessionToken) {
-        if (activeSessions.containsKey(sessionToken)) {
-            activeSessions.remove(sessionToken);
-        } else {
+        if (!sessionService.remove(sessionToken)) {
             throw new AuthException("Sessão inválida ou já encerrada.");
         }
     }
 
-    /**
-     * Verifica se um token de sessão é válido.
-     *
-     * @param sessionToken O token de sessão a ser verificado.
-     * @return true se o token de sessão for válido, false caso contrário.
-     */
-    public boolean isAuthenticated(String sessionToken) {
-        return activeSessions.containsKey(sessionToken);
-    }
-
     /**
      * Exclui um usuário pelo email.
      *
@@ -115,19 +178,10 @@ public class UserService {
     public boolean deleteUser(String email) {
         try {
             userRepository.deleteByEmail(email);
+            userChangeRepository.save(new UserChangeEntity(email));
             return true;
         } catch (Exception e) {
             return false;
         }
     }
-
-    /**
-     * Armazena um token de sessão.
-     *
-     * @param token O token de sessão.
-     * @param email O email do usuário associado ao token de sessão.
-     */
-    public void storeSessionToken(String token, String email) {
-        activeSessions.put(token, email);
-    }
 }
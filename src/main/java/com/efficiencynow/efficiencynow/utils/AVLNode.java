@@ -2,25 +2,44 @@ package com.efficiencynow.efficiencynow.utils;
 
 /**
  * Classe que representa um nó em uma árvore AVL.
+ * Os nós são imutáveis: toda alteração na árvore cria novos nós ao longo do caminho modificado,
+ * o que permite que leituras concorrentes percorram a árvore sem bloqueio.
+ * Cada nó guarda o tamanho da sua subárvore, usado para consultas por posição.
  *
- * @param <K> Tipo da chave, que deve ser comparável.
+ * @param <K> Tipo da chave.
  * @param <V> Tipo do valor armazenado no nó.
  */
-public class AVLNode<K extends Comparable<K>, V> {
-    K key;
-    V value;
-    AVLNode<K, V> left, right;
-    int height;
+public class AVLNode<K, V> {
+    final K key;
+    final V value;
+    final AVLNode<K, V> left, right;
+    final int height;
+    final int size;
 
     /**
-     * Construtor para criar um novo nó AVL.
+     * Construtor para criar um novo nó AVL folha.
      *
      * @param key   A chave do nó.
      * @param value O valor armazenado no nó.
      */
     public AVLNode(K key, V value) {
+        this(key, value, null, null);
+    }
+
+    /**
+     * Construtor para criar um novo nó AVL com filhos.
+     *
+     * @param key   A chave do nó.
+     * @param value O valor armazenado no nó.
+     * @param left  O filho à esquerda.
+     * @param right O filho à direita.
+     */
+    public AVLNode(K key, V value, AVLNode<K, V> left, AVLNode<K, V> right) {
         this.key = key;
         this.value = value;
-        this.height = 1;
+        this.left = left;
+        this.right = right;
+        this.height = Math.max(left == null ? 0 : left.height, right == null ? 0 : right.height) + 1;
+        this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,51 @@
 package com.efficiencynow.efficiencynow.utils;
 
-public class AVLTree<K extends Comparable<K>, V> {
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
-    private AVLNode<K, V> root;
+/**
+ * Árvore AVL segura para acesso concorrente.
+ * <p>
+ * Os nós são imutáveis e cada inserção ou remoção copia apenas o caminho da raiz até o ponto
+ * alterado, publicando a nova raiz com uma operação de compare-and-set. Assim, buscas nunca
+ * bloqueiam (enxergam sempre uma versão consistente da árvore) e escritas concorrentes não
+ * perdem atualizações: em caso de conflito, a operação é refeita sobre a raiz mais recente.
+ * <p>
+ * As chaves são ordenadas pelo comparador informado na construção ou, na falta dele, pela ordem
+ * natural, como em {@link java.util.TreeMap}.
+ *
+ * @param <K> Tipo da chave.
+ * @param <V> Tipo do valor armazenado na árvore.
+ */
+public class AVLTree<K, V> {
+
+    // Altura máxima de uma árvore AVL com até 2^31 nós é cerca de 45; a folga cobre qualquer índice real.
+    private static final int MAX_HEIGHT = 64;
+
+    private final AtomicReference<AVLNode<K, V>> root = new AtomicReference<>();
+
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Cria uma árvore vazia ordenada pela ordem natural das chaves, que devem implementar {@link Comparable}.
+     */
+    @SuppressWarnings("unchecked")
+    public AVLTree() {
+        this((Comparator<? super K>) Comparator.naturalOrder());
+    }
+
+    /**
+     * Cria uma árvore vazia ordenada por um comparador.
+     *
+     * @param comparator O comparador das chaves.
+     */
+    public AVLTree(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
 
     /**
      * Retorna a altura de um nó.
@@ -14,6 +57,16 @@ public class AVLTree<K extends Comparable<K>, V> {
         return node == null ? 0 : node.height;
     }
 
+    /**
+     * Retorna o tamanho da subárvore de um nó.
+     *
+     * @param node O nó.
+     * @return O número de nós da subárvore, ou 0 se o nó for nulo.
+     */
+    private int size(AVLNode<K, V> node) {
+        return node == null ? 0 : node.size;
+    }
+
     /**
      * Retorna o fator de balanceamento de um nó.
      *
@@ -25,204 +78,412 @@ public class AVLTree<K extends Comparable<K>, V> {
     }
 
     /**
-     * Realiza uma rotação à direita em torno de um nó.
+     * Realiza uma rotação à direita sobre um nó descrito pelos seus componentes.
      *
-     * @param y O nó em torno do qual a rotação será realizada.
+     * @param key   A chave do nó em torno do qual a rotação será realizada.
+     * @param value O valor do nó.
+     * @param left  O filho à esquerda do nó.
+     * @param right O filho à direita do nó.
      * @return O novo nó raiz após a rotação.
      */
-    private AVLNode<K, V> rightRotate(AVLNode<K, V> y) {
-        AVLNode<K, V> x = y.left;
-        AVLNode<K, V> K2 = x.right;
-
-        x.right = y;
-        y.left = K2;
-
-        y.height = Math.max(height(y.left), height(y.right)) + 1;
-        x.height = Math.max(height(x.left), height(x.right)) + 1;
-
-        return x;
+    private AVLNode<K, V> rightRotate(K key, V value, AVLNode<K, V> left, AVLNode<K, V> right) {
+        return new AVLNode<>(left.key, left.value, left.left, new AVLNode<>(key, value, left.right, right));
     }
 
     /**
-     * Realiza uma rotação à esquerda em torno de um nó.
+     * Realiza uma rotação à esquerda sobre um nó descrito pelos seus componentes.
      *
-     * @param x O nó em torno do qual a rotação será realizada.
+     * @param key   A chave do nó em torno do qual a rotação será realizada.
+     * @param value O valor do nó.
+     * @param left  O filho à esquerda do nó.
+     * @param right O filho à direita do nó.
      * @return O novo nó raiz após a rotação.
      */
-    private AVLNode<K, V> leftRotate(AVLNode<K, V> x) {
-        AVLNode<K, V> y = x.right;
-        AVLNode<K, V> K2 = y.left;
-
-        y.left = x;
-        x.right = K2;
-
-        x.height = Math.max(height(x.left), height(x.right)) + 1;
-        y.height = Math.max(height(y.left), height(y.right)) + 1;
+    private AVLNode<K, V> leftRotate(K key, V value, AVLNode<K, V> left, AVLNode<K, V> right) {
+        return new AVLNode<>(right.key, right.value, new AVLNode<>(key, value, left, right.left), right.right);
+    }
 
-        return y;
+    /**
+     * Cria um nó com os componentes fornecidos, aplicando as rotações necessárias
+     * para manter a propriedade AVL.
+     *
+     * @param key   A chave do nó.
+     * @param value O valor do nó.
+     * @param left  O filho à esquerda.
+     * @param right O filho à direita.
+     * @return O nó raiz balanceado da subárvore.
+     */
+    private AVLNode<K, V> rebalance(K key, V value, AVLNode<K, V> left, AVLNode<K, V> right) {
+        int balance = height(left) - height(right);
+        if (balance > 1) {
+            if (getBalance(left) < 0) {
+                left = leftRotate(left.key, left.value, left.left, left.right);
+            }
+            return rightRotate(key, value, left, right);
+        }
+        if (balance < -1) {
+            if (getBalance(right) > 0) {
+                right = rightRotate(right.key, right.value, right.left, right.right);
+            }
+            return leftRotate(key, value, left, right);
+        }
+        return new AVLNode<>(key, value, left, right);
     }
 
     /**
-     * Insere uma chave e valor na árvore AVL.
+     * Insere uma chave e valor na árvore AVL de forma iterativa, copiando o caminho percorrido.
      *
-     * @param node  O nó raiz da árvore/subárvore onde a chave será inserida.
+     * @param node  O nó raiz da árvore onde a chave será inserida.
      * @param key   A chave a ser inserida.
      * @param value O valor associado à chave.
      * @return O novo nó raiz após a inserção.
      */
-    public AVLNode<K, V> insert(AVLNode<K, V> node, K key, V value) {
-        if (node == null) {
-            return new AVLNode<>(key, value);
-        }
+    private AVLNode<K, V> insert(AVLNode<K, V> node, K key, V value) {
+        AVLNode<K, V>[] path = newPath();
+        boolean[] wentLeft = new boolean[MAX_HEIGHT];
+        int depth = 0;
 
-        if (key.compareTo(node.key) < 0) {
-            node.left = insert(node.left, key, value);
-        } else if (key.compareTo(node.key) > 0) {
-            node.right = insert(node.right, key, value);
-        } else {
-            node.value = value;
-            return node;
+        AVLNode<K, V> subtree = null;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                subtree = new AVLNode<>(node.key, value, node.left, node.right);
+                break;
+            }
+            path[depth] = node;
+            wentLeft[depth++] = cmp < 0;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        if (subtree == null) {
+            subtree = new AVLNode<>(key, value);
         }
 
-        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        return rebuildPath(path, wentLeft, depth, subtree);
+    }
 
-        int balance = getBalance(node);
+    /**
+     * Insere uma chave e valor na árvore AVL. Se a chave já existir, o valor é substituído.
+     *
+     * @param key   A chave a ser inserida.
+     * @param value O valor associado à chave.
+     */
+    public void insert(K key, V value) {
+        AVLNode<K, V> current;
+        AVLNode<K, V> updated;
+        do {
+            current = root.get();
+            updated = insert(current, key, value);
+        } while (!root.compareAndSet(current, updated));
+    }
 
-        if (balance > 1 && key.compareTo(node.left.key) < 0) {
-            return rightRotate(node);
+    /**
+     * Substitui o conteúdo da árvore por uma árvore perfeitamente balanceada construída em
+     * tempo linear a partir de valores já ordenados pela chave, sem nenhuma rotação.
+     * Destina-se à carga inicial: escritas concorrentes feitas durante a construção são descartadas.
+     *
+     * @param values       Os valores, em ordem estritamente crescente de chave.
+     * @param keyExtractor Função que obtém a chave de cada valor.
+     * @throws IllegalArgumentException Se os valores não estiverem em ordem estritamente crescente.
+     */
+    public void loadSorted(List<? extends V> values, Function<? super V, ? extends K> keyExtractor) {
+        for (int i = 1; i < values.size(); i++) {
+            if (comparator.compare(keyExtractor.apply(values.get(i - 1)), keyExtractor.apply(values.get(i))) >= 0) {
+                throw new IllegalArgumentException("Os valores devem estar em ordem estritamente crescente de chave (posição " + i + ").");
+            }
         }
+        root.set(buildBalanced(values, keyExtractor, 0, values.size() - 1));
+    }
 
-        if (balance < -1 && key.compareTo(node.right.key) > 0) {
-            return leftRotate(node);
+    /**
+     * Constrói uma subárvore balanceada a partir de um intervalo de valores ordenados,
+     * usando o elemento central como raiz.
+     *
+     * @param values       Os valores ordenados.
+     * @param keyExtractor Função que obtém a chave de cada valor.
+     * @param low          Índice inicial do intervalo (inclusivo).
+     * @param high         Índice final do intervalo (inclusivo).
+     * @return O nó raiz da subárvore, ou null se o intervalo estiver vazio.
+     */
+    private AVLNode<K, V> buildBalanced(List<? extends V> values, Function<? super V, ? extends K> keyExtractor,
+                                        int low, int high) {
+        if (low > high) {
+            return null;
         }
+        int mid = (low + high) >>> 1;
+        V value = values.get(mid);
+        AVLNode<K, V> left = buildBalanced(values, keyExtractor, low, mid - 1);
+        AVLNode<K, V> right = buildBalanced(values, keyExtractor, mid + 1, high);
+        return new AVLNode<>(keyExtractor.apply(value), value, left, right);
+    }
 
-        if (balance > 1 && key.compareTo(node.left.key) > 0) {
-            node.left = leftRotate(node.left);
-            return rightRotate(node);
+    /**
+     * Procura uma chave na árvore AVL.
+     * A busca é iterativa, compara a chave uma única vez por nível e não aloca objetos.
+     *
+     * @param key A chave a ser procurada.
+     * @return O valor associado à chave, ou null se a chave não for encontrada.
+     */
+    public V search(K key) {
+        AVLNode<K, V> node = root.get();
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
         }
+        return null;
+    }
 
-        if (balance < -1 && key.compareTo(node.right.key) < 0) {
-            node.right = rightRotate(node.right);
-            return leftRotate(node);
+    /**
+     * Percorre os valores da árvore em ordem crescente de chave.
+     * O percurso enxerga a versão da árvore existente no momento da chamada; alterações
+     * concorrentes não o afetam.
+     *
+     * @param action A ação executada para cada valor.
+     */
+    public void forEach(Consumer<? super V> action) {
+        AVLNode<K, V>[] stack = newPath();
+        int depth = 0;
+        AVLNode<K, V> node = root.get();
+        while (node != null || depth > 0) {
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+            node = stack[--depth];
+            action.accept(node.value);
+            node = node.right;
         }
+    }
 
-        return node;
+    /**
+     * Percorre os valores da árvore em ordem crescente de chave enquanto a ação retornar true.
+     * Como em {@link #forEach}, o percurso enxerga a versão da árvore existente no momento da chamada.
+     *
+     * @param action A ação executada para cada valor; retorna false para encerrar o percurso.
+     */
+    public void forEachWhile(Predicate<? super V> action) {
+        AVLNode<K, V>[] stack = newPath();
+        int depth = 0;
+        AVLNode<K, V> node = root.get();
+        while (node != null || depth > 0) {
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+            node = stack[--depth];
+            if (!action.test(node.value)) {
+                return;
+            }
+            node = node.right;
+        }
     }
 
     /**
-     * Insere uma chave e valor na árvore AVL.
+     * Retorna o número de chaves da árvore, em tempo constante.
      *
-     * @param key   A chave a ser inserida.
-     * @param value O valor associado à chave.
+     * @return O número de chaves.
      */
-    public void insert(K key, V value) {
-        root = insert(root, key, value);
+    public int size() {
+        return size(root.get());
     }
 
     /**
-     * Procura uma chave na árvore AVL.
+     * Retorna a posição que uma chave ocupa, ou ocuparia, na ordem da árvore: o número de chaves
+     * menores que ela. Executa em tempo logarítmico usando o tamanho das subárvores.
+     * Com {@link #forEachFrom}, permite percorrer intervalos de chaves e contá-los sem visitá-los.
      *
-     * @param key A chave a ser procurada.
-     * @return O valor associado à chave, ou null se a chave não for encontrada.
+     * @param key A chave.
+     * @return O número de chaves menores que a chave fornecida.
      */
-    public V search(K key) {
-        return search(root, key);
+    public int rank(K key) {
+        int rank = 0;
+        AVLNode<K, V> node = root.get();
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
     }
 
     /**
-     * Procura uma chave na árvore AVL a partir de um nó específico.
+     * Percorre, em ordem crescente de chave, até {@code limit} valores a partir de uma posição.
+     * A posição inicial é localizada em tempo logarítmico. Como em {@link #forEach}, o percurso
+     * enxerga a versão da árvore existente no momento da chamada.
      *
-     * @param node O nó raiz da árvore/subárvore onde a chave será procurada.
-     * @param key  A chave a ser procurada.
-     * @return O valor associado à chave, ou null se a chave não for encontrada.
+     * @param index  A posição do primeiro valor (0 para o menor).
+     * @param limit  O número máximo de valores.
+     * @param action A ação executada para cada valor.
      */
-    private V search(AVLNode<K, V> node, K key) {
-        if (node == null) {
-            return null;
+    public void forEachFrom(int index, int limit, Consumer<? super V> action) {
+        AVLNode<K, V>[] stack = newPath();
+        int depth = 0;
+        AVLNode<K, V> node = root.get();
+        if (index < 0 || node == null || index >= node.size) {
+            return;
+        }
+        // Desce até o valor da posição inicial, empilhando os ancestrais que ainda serão visitados.
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                stack[depth++] = node;
+                node = node.left;
+            } else if (index == leftSize) {
+                stack[depth++] = node;
+                break;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
         }
 
-        if (key.compareTo(node.key) < 0) {
-            return search(node.left, key);
-        } else if (key.compareTo(node.key) > 0) {
-            return search(node.right, key);
-        } else {
-            return node.value;
+        node = null;
+        while (limit > 0 && (node != null || depth > 0)) {
+            while (node != null) {
+                stack[depth++] = node;
+                node = node.left;
+            }
+            node = stack[--depth];
+            action.accept(node.value);
+            limit--;
+            node = node.right;
         }
     }
 
+    /**
+     * Cria uma cópia da árvore em tempo constante. As duas árvores compartilham os nós imutáveis
+     * atuais, e alterações posteriores em uma não afetam a outra.
+     *
+     * @return A cópia.
+     */
+    public AVLTree<K, V> snapshot() {
+        AVLTree<K, V> copy = new AVLTree<>(comparator);
+        copy.root.set(root.get());
+        return copy;
+    }
+
     /**
      * Remove um nó da árvore AVL pela chave.
      *
      * @param key A chave do nó a ser removido.
      */
     public void delete(K key) {
-        root = delete(root, key);
+        AVLNode<K, V> current;
+        AVLNode<K, V> updated;
+        do {
+            current = root.get();
+            updated = delete(current, key);
+            if (updated == current) {
+                return;
+            }
+        } while (!root.compareAndSet(current, updated));
     }
 
     /**
-     * Remove um nó da árvore AVL pela chave.
+     * Remove um nó da árvore AVL pela chave de forma iterativa, copiando o caminho percorrido.
      *
-     * @param node O nó raiz da árvore/subárvore.
-     * @param key A chave do nó a ser removido.
-     * @return O novo nó raiz após a remoção.
+     * @param root O nó raiz da árvore.
+     * @param key  A chave do nó a ser removido.
+     * @return O novo nó raiz após a remoção, ou a própria raiz se a chave não existir.
      */
-    private AVLNode<K, V> delete(AVLNode<K, V> node, K key) {
-        if (node == null) {
-            return null;
-        }
-        if (key.compareTo(node.key) < 0) {
-            node.left = delete(node.left, key);
-        } else if (key.compareTo(node.key) > 0) {
-            node.right = delete(node.right, key);
-        } else {
-            if (node.left == null || node.right == null) {
-                AVLNode<K, V> temp = node.left != null ? node.left : node.right;
-                if (temp == null) {
-                    temp = node;
-                    node = null;
-                } else {
-                    node = temp;
-                }
-            } else {
-                AVLNode<K, V> temp = minValueNode(node.right);
-                node.key = temp.key;
-                node.value = temp.value;
-                node.right = delete(node.right, temp.key);
+    private AVLNode<K, V> delete(AVLNode<K, V> root, K key) {
+        AVLNode<K, V>[] path = newPath();
+        boolean[] wentLeft = new boolean[MAX_HEIGHT];
+        int depth = 0;
+
+        AVLNode<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                break;
             }
+            path[depth] = node;
+            wentLeft[depth++] = cmp < 0;
+            node = cmp < 0 ? node.left : node.right;
         }
         if (node == null) {
-            return node;
+            return root;
         }
-        node.height = Math.max(height(node.left), height(node.right)) + 1;
-        int balance = getBalance(node);
-        if (balance > 1 && getBalance(node.left) >= 0) {
-            return rightRotate(node);
-        }
-        if (balance > 1 && getBalance(node.left) < 0) {
-            node.left = leftRotate(node.left);
-            return rightRotate(node);
+
+        AVLNode<K, V> subtree;
+        if (node.left == null) {
+            subtree = node.right;
+        } else if (node.right == null) {
+            subtree = node.left;
+        } else {
+            subtree = replaceWithSuccessor(node);
         }
-        if (balance < -1 && getBalance(node.right) <= 0) {
-            return leftRotate(node);
+
+        return rebuildPath(path, wentLeft, depth, subtree);
+    }
+
+    /**
+     * Substitui um nó com dois filhos pelo seu sucessor em ordem, removendo o sucessor
+     * da subárvore à direita.
+     *
+     * @param node O nó a ser substituído.
+     * @return O novo nó raiz da subárvore.
+     */
+    private AVLNode<K, V> replaceWithSuccessor(AVLNode<K, V> node) {
+        AVLNode<K, V>[] path = newPath();
+        int depth = 0;
+
+        AVLNode<K, V> successor = node.right;
+        while (successor.left != null) {
+            path[depth++] = successor;
+            successor = successor.left;
         }
-        if (balance < -1 && getBalance(node.right) > 0) {
-            node.right = rightRotate(node.right);
-            return leftRotate(node);
+
+        AVLNode<K, V> right = successor.right;
+        while (depth > 0) {
+            AVLNode<K, V> parent = path[--depth];
+            right = rebalance(parent.key, parent.value, right, parent.right);
         }
-        return node;
+        return rebalance(successor.key, successor.value, node.left, right);
     }
 
     /**
-     * Encontra o nó com o menor valor em uma subárvore.
+     * Reconstrói o caminho percorrido de baixo para cima, rebalanceando cada ancestral
+     * em torno da subárvore alterada.
      *
-     * @param node O nó raiz da subárvore.
-     * @return O nó com o menor valor.
+     * @param path     Os ancestrais visitados, da raiz até o pai da subárvore alterada.
+     * @param wentLeft Indica, para cada ancestral, se a descida seguiu pela esquerda.
+     * @param depth    O número de ancestrais no caminho.
+     * @param subtree  A nova subárvore no fim do caminho.
+     * @return O novo nó raiz da árvore.
      */
-    private AVLNode<K, V> minValueNode(AVLNode<K, V> node) {
-        AVLNode<K, V> current = node;
-        while (current.left != null) {
-            current = current.left;
+    private AVLNode<K, V> rebuildPath(AVLNode<K, V>[] path, boolean[] wentLeft, int depth, AVLNode<K, V> subtree) {
+        while (depth > 0) {
+            AVLNode<K, V> parent = path[--depth];
+            subtree = wentLeft[depth]
+                    ? rebalance(parent.key, parent.value, subtree, parent.right)
+                    : rebalance(parent.key, parent.value, parent.left, subtree);
         }
-        return current;
+        return subtree;
+    }
+
+    /**
+     * Cria o vetor usado para registrar o caminho percorrido em uma inserção ou remoção.
+     *
+     * @return Um vetor com capacidade para a altura máxima suportada.
+     */
+    @SuppressWarnings("unchecked")
+    private AVLNode<K, V>[] newPath() {
+        return (AVLNode<K, V>[]) new AVLNode[MAX_HEIGHT];
+    }
+
+    /**
+     * Retorna a versão atual da raiz da árvore.
+     *
+     * @return O nó raiz, ou null se a árvore estiver vazia.
+     */
+    AVLNode<K, V> root() {
+        return root.get();
     }
 }
@@ -0,0 +1,99 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Índice de usuários na heap, baseado em uma {@link AVLTree} indexada pelos bytes UTF-8 do email.
+ */
+public class AVLUserIndex implements UserIndex {
+
+    private final AVLTree<byte[], UserNode> tree;
+
+    /**
+     * Construtor do índice vazio.
+     */
+    public AVLUserIndex() {
+        this(new AVLTree<>(Arrays::compareUnsigned));
+    }
+
+    private AVLUserIndex(AVLTree<byte[], UserNode> tree) {
+        this.tree = tree;
+    }
+
+    @Override
+    public UserNode find(String email) {
+        return tree.search(UserNode.encode(email));
+    }
+
+    @Override
+    public void put(UserNode userNode) {
+        tree.insert(userNode.getEmailBytes(), userNode);
+    }
+
+    @Override
+    public void remove(String email) {
+        tree.delete(UserNode.encode(email));
+    }
+
+    @Override
+    public void loadSorted(List<UserNode> userNodes) {
+        tree.loadSorted(userNodes, UserNode::getEmailBytes);
+    }
+
+    @Override
+    public void load(Iterator<UserNode> userNodes) {
+        List<UserNode> sorted = new ArrayList<>();
+        userNodes.forEachRemaining(sorted::add);
+        sorted.sort(UserNode.EMAIL_ORDER);
+        tree.loadSorted(sorted, UserNode::getEmailBytes);
+    }
+
+    @Override
+    public void forEach(Consumer<? super UserNode> action) {
+        tree.forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    public int rank(byte[] email) {
+        return tree.rank(email);
+    }
+
+    @Override
+    public void forEachFrom(int index, int limit, Consumer<? super UserNode> action) {
+        tree.forEachFrom(index, limit, action);
+    }
+
+    @Override
+    public int forEachWithEmailSuffix(byte[] suffix, int skip, int limit, boolean countAll, Consumer<? super UserNode> action) {
+        int[] matched = {0};
+        tree.forEachWhile(user -> {
+            if (user.emailEndsWithIgnoreCase(suffix)) {
+                if (matched[0] >= skip && matched[0] - skip < limit) {
+                    action.accept(user);
+                }
+                matched[0]++;
+            }
+            return countAll || matched[0] - skip < limit;
+        });
+        return matched[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A visão compartilha os nós imutáveis da árvore e é obtida em tempo constante.
+     */
+    @Override
+    public UserIndexView snapshot() {
+        return new AVLUserIndex(tree.snapshot());
+    }
+}
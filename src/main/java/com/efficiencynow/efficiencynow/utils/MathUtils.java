@@ -0,0 +1,57 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Classe utilitária para operações numéricas usadas nos cálculos de economia.
+ */
+public class MathUtils {
+
+    // Acima deste valor (já multiplicado por 100) o erro de ponto flutuante pode se aproximar da tolerância de empate.
+    private static final double FAST_PATH_LIMIT = 1e9;
+
+    // Distância de 0,5 a partir da qual a parte fracionária é considerada um possível empate.
+    private static final double TIE_TOLERANCE = 1e-6;
+
+    /**
+     * Arredonda um valor para duas casas decimais com a regra HALF_UP, sem alocar objetos.
+     * <p>
+     * O resultado é idêntico a {@code BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue()}.
+     * Valores muito grandes, não finitos ou cuja terceira casa decimal esteja muito próxima de um empate
+     * (onde a representação decimal e a binária podem divergir) usam o próprio BigDecimal.
+     *
+     * @param value O valor a ser arredondado.
+     * @return O valor arredondado para duas casas decimais.
+     */
+    public static double roundToTwoDecimals(double value) {
+        double scaled = Math.abs(value) * 100;
+        if (!(scaled < FAST_PATH_LIMIT)) {
+            return roundWithBigDecimal(value);
+        }
+
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) < TIE_TOLERANCE) {
+            return roundWithBigDecimal(value);
+        }
+
+        double rounded = (fraction > 0.5 ? floor + 1 : floor) / 100;
+        if (rounded == 0) {
+            return 0.0;
+        }
+        return value < 0 ? -rounded : rounded;
+    }
+
+    /**
+     * Arredonda um valor para duas casas decimais com a regra HALF_UP usando BigDecimal.
+     *
+     * @param value O valor a ser arredondado.
+     * @return O valor arredondado para duas casas decimais.
+     */
+    static double roundWithBigDecimal(double value) {
+        return BigDecimal.valueOf(value)
+                .setScale(2, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
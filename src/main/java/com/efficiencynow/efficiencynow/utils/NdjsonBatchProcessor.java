@@ -0,0 +1,142 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import com.efficiencynow.efficiencynow.dtos.BatchItemResultDTO;
+import com.efficiencynow.efficiencynow.dtos.BatchSummaryDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Processador de lotes JSON em streaming.
+ * <p>
+ * Lê os itens um a um, de um array JSON ou de um fluxo NDJSON (um objeto por linha), valida e
+ * processa cada item e escreve o resultado como uma linha NDJSON assim que ele é calculado.
+ * Nem a entrada nem a saída são mantidas inteiras em memória. Após o último item, é escrita uma
+ * linha de resumo no formato {@code {"summary": {...}}}.
+ *
+ * @param <T> Tipo dos itens de entrada.
+ * @param <R> Tipo do resultado de cada item.
+ */
+public class NdjsonBatchProcessor<T, R> {
+
+    // Número de itens escritos entre cada envio parcial da resposta ao cliente.
+    private static final int FLUSH_INTERVAL = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Class<T> itemType;
+    private final Function<T, R> handler;
+
+    /**
+     * Construtor do processador de lotes.
+     *
+     * @param objectMapper O ObjectMapper usado para ler e escrever JSON.
+     * @param validator    O validador aplicado a cada item.
+     * @param itemType     A classe dos itens de entrada.
+     * @param handler      A função que calcula o resultado de cada item válido.
+     */
+    public NdjsonBatchProcessor(ObjectMapper objectMapper, Validator validator, Class<T> itemType, Function<T, R> handler) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.itemType = itemType;
+        this.handler = handler;
+    }
+
+    /**
+     * Processa um lote, lendo os itens da entrada e escrevendo os resultados na saída.
+     *
+     * @param input     A entrada com um array JSON ou um fluxo NDJSON.
+     * @param output    A saída onde os resultados serão escritos em NDJSON.
+     * @param aggregate Fornece o agregado do lote, consultado após o último item.
+     * @throws IOException Se ocorrer um erro de leitura ou escrita.
+     */
+    public void process(InputStream input, OutputStream output, Supplier<?> aggregate) throws IOException {
+        int processed = 0;
+        int failed = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            try {
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    BatchItemResultDTO<R> result = processItem(processed, objectMapper.readTree(parser));
+                    if (result.getErrors() != null) {
+                        failed++;
+                    }
+                    writer.write(result);
+                    processed++;
+                    if (processed % FLUSH_INTERVAL == 0) {
+                        writer.flush();
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                // JSON malformado: os itens seguintes não podem ser separados com segurança
+                writer.write(new BatchItemResultDTO<R>(processed, null, List.of("JSON inválido: " + e.getOriginalMessage())));
+                processed++;
+                failed++;
+            }
+
+            writer.write(Map.of("summary", new BatchSummaryDTO<>(processed, failed, aggregate.get())));
+            writer.flush();
+            output.write('\n');
+        }
+    }
+
+    /**
+     * Converte, valida e processa um item do lote.
+     *
+     * @param index A posição do item no lote.
+     * @param node  O item lido como árvore JSON.
+     * @return O resultado do item, ou os erros encontrados.
+     */
+    private BatchItemResultDTO<R> processItem(int index, JsonNode node) {
+        // null, números, textos e arrays não são itens; treeToValue devolveria null para um JSON null
+        if (node == null || !node.isObject()) {
+            return new BatchItemResultDTO<>(index, null, List.of("Item inválido"));
+        }
+
+        T item;
+        try {
+            item = objectMapper.treeToValue(node, itemType);
+        } catch (JsonProcessingException e) {
+            return new BatchItemResultDTO<>(index, null, List.of("Item inválido: " + e.getOriginalMessage()));
+        }
+
+        Set<ConstraintViolation<T>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            List<String> errors = new ArrayList<>(violations.size());
+            for (ConstraintViolation<T> violation : violations) {
+                errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            return new BatchItemResultDTO<>(index, null, errors);
+        }
+
+        try {
+            return new BatchItemResultDTO<>(index, handler.apply(item), null);
+        } catch (IllegalArgumentException e) {
+            return new BatchItemResultDTO<>(index, null, List.of(Objects.requireNonNullElse(e.getMessage(), "Item inválido")));
+        }
+    }
+}
@@ -0,0 +1,978 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Índice de usuários fora da heap.
+ * <p>
+ * A base do índice é um segmento imutável em buffers diretos: os registros (id, email, hash da senha
+ * e nome, em UTF-8) ficam em blocos de até 1 GiB, e uma tabela de posições, também fora da heap,
+ * os mantém em ordem de email (comparação sem sinal dos bytes UTF-8). A busca é binária sobre essa
+ * tabela e só cria objetos para o usuário encontrado, de modo que o custo na heap independe do número
+ * de usuários.
+ * <p>
+ * Inclusões e remoções posteriores à carga ficam em uma {@link AVLTree} de alterações na heap
+ * (remoções como marcadores). Quando ela cresce demais, uma compactação em segundo plano copia os
+ * registros da base e as alterações diretamente para um novo segmento, que substitui a base junto com
+ * as alterações feitas durante a cópia. Buscas nunca bloqueiam: leem uma versão imutável do par
+ * base/alterações; escritas são serializadas entre si e não esperam a compactação.
+ */
+public class OffHeapUserIndex implements UserIndex {
+
+    // Tamanho mínimo da árvore de alterações para disparar a compactação.
+    private static final int MIN_COMPACTION_THRESHOLD = 10_000;
+
+    // Executa cada compactação em uma thread daemon própria; há no máximo uma por índice.
+    private static final Executor BACKGROUND_COMPACTOR = task -> {
+        Thread thread = new Thread(task, "user-index-compaction");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final Object writeLock = new Object();
+
+    private final int minCompactionThreshold;
+
+    private final Executor compactor;
+
+    private volatile State state = new State(Segment.build(List.of()), newChanges());
+
+    // Número de alterações desde a última compactação; protegido por writeLock.
+    private int pendingChanges;
+
+    // Indica se há uma compactação em andamento; protegido por writeLock.
+    private boolean compacting;
+
+    /**
+     * Versão do índice: o segmento base e as alterações feitas sobre ele.
+     */
+    private record State(Segment base, AVLTree<byte[], Change> changes) {
+    }
+
+    /**
+     * Alteração feita sobre a base.
+     *
+     * @param email  Os bytes UTF-8 do email do usuário.
+     * @param user   O novo nó do usuário, ou null se o usuário foi removido.
+     * @param inBase Indica se o usuário existe na base, ou seja, se a alteração substitui ou remove
+     *               um registro em vez de acrescentar um.
+     */
+    private record Change(byte[] email, UserNode user, boolean inBase) {
+
+        /**
+         * Retorna a variação que a alteração causa no número de usuários.
+         *
+         * @return 1 para uma inclusão, -1 para uma remoção e 0 para uma substituição.
+         */
+        int sizeDelta() {
+            return (user == null ? 0 : 1) - (inBase ? 1 : 0);
+        }
+    }
+
+    /**
+     * Construtor do índice, com o limite padrão de compactação.
+     */
+    public OffHeapUserIndex() {
+        this(MIN_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Construtor do índice.
+     *
+     * @param minCompactionThreshold Número mínimo de alterações acumuladas antes de uma compactação;
+     *                               o limite efetivo cresce com o tamanho da base.
+     */
+    public OffHeapUserIndex(int minCompactionThreshold) {
+        this(minCompactionThreshold, BACKGROUND_COMPACTOR);
+    }
+
+    /**
+     * Construtor do índice com o executor das compactações, usado nos testes para controlar quando
+     * elas rodam.
+     *
+     * @param minCompactionThreshold Número mínimo de alterações acumuladas antes de uma compactação.
+     * @param compactor              O executor que roda as compactações.
+     */
+    OffHeapUserIndex(int minCompactionThreshold, Executor compactor) {
+        this.minCompactionThreshold = minCompactionThreshold;
+        this.compactor = compactor;
+    }
+
+    @Override
+    public UserNode find(String email) {
+        State current = state;
+        byte[] key = UserNode.encode(email);
+        Change change = current.changes.search(key);
+        if (change != null) {
+            return change.user;
+        }
+        return current.base.find(key);
+    }
+
+    @Override
+    public void put(UserNode userNode) {
+        synchronized (writeLock) {
+            State current = state;
+            byte[] key = userNode.getEmailBytes();
+            current.changes.insert(key, new Change(key, userNode, current.base.indexOf(key) >= 0));
+            registerChange();
+        }
+    }
+
+    @Override
+    public void remove(String email) {
+        synchronized (writeLock) {
+            State current = state;
+            byte[] key = UserNode.encode(email);
+            if (current.base.indexOf(key) >= 0) {
+                current.changes.insert(key, new Change(key, null, true));
+                registerChange();
+            } else {
+                current.changes.delete(key);
+            }
+        }
+    }
+
+    @Override
+    public void loadSorted(List<UserNode> userNodes) {
+        for (int i = 1; i < userNodes.size(); i++) {
+            if (UserNode.EMAIL_ORDER.compare(userNodes.get(i - 1), userNodes.get(i)) >= 0) {
+                throw new IllegalArgumentException("Os usuários devem estar em ordem estritamente crescente de email (posição " + i + ").");
+            }
+        }
+        install(Segment.build(userNodes));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Cada usuário é gravado no novo segmento assim que é lido, sem acumular os nós na heap. Se a
+     * sequência não vier em ordem de bytes do email, a tabela de posições é ordenada no próprio
+     * buffer direto depois da leitura.
+     */
+    @Override
+    public void load(Iterator<UserNode> userNodes) {
+        Segment.Writer writer = new Segment.Writer();
+        userNodes.forEachRemaining(writer::append);
+        install(writer.finishSortingByEmail());
+    }
+
+    /**
+     * Substitui a base do índice, descartando as alterações pendentes.
+     *
+     * @param base O novo segmento base.
+     */
+    private void install(Segment base) {
+        synchronized (writeLock) {
+            state = new State(base, newChanges());
+            pendingChanges = 0;
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super UserNode> action) {
+        snapshot().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return snapshot().size();
+    }
+
+    @Override
+    public int rank(byte[] email) {
+        return snapshot().rank(email);
+    }
+
+    @Override
+    public void forEachFrom(int index, int limit, Consumer<? super UserNode> action) {
+        snapshot().forEachFrom(index, limit, action);
+    }
+
+    @Override
+    public int forEachWithEmailSuffix(byte[] suffix, int skip, int limit, boolean countAll, Consumer<? super UserNode> action) {
+        return snapshot().forEachWithEmailSuffix(suffix, skip, limit, countAll, action);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A visão copia as alterações pendentes, em tempo proporcional ao número delas, limitado pela
+     * compactação; o segmento base é compartilhado.
+     */
+    @Override
+    public UserIndexView snapshot() {
+        State current = state;
+        return new Snapshot(current.base, new ChangeView(current.changes));
+    }
+
+    /**
+     * Retorna a memória fora da heap ocupada pelo segmento base.
+     *
+     * @return O número de bytes alocados em buffers diretos.
+     */
+    public long getOffHeapBytes() {
+        return state.base.allocatedBytes();
+    }
+
+    /**
+     * Contabiliza uma alteração e agenda uma compactação se o limite tiver sido atingido e nenhuma
+     * estiver em andamento. Deve ser chamado com writeLock adquirido.
+     */
+    private void registerChange() {
+        State current = state;
+        if (++pendingChanges < Math.max(minCompactionThreshold, current.base.size() / 8) || compacting) {
+            return;
+        }
+        compacting = true;
+        ChangeView snapshot = new ChangeView(current.changes);
+        compactor.execute(() -> compact(current, snapshot));
+    }
+
+    /**
+     * Combina a base com uma cópia das alterações em um novo segmento, fora de writeLock, e então
+     * publica o segmento com as alterações feitas durante a combinação. A compactação é descartada
+     * se uma carga tiver substituído o índice nesse meio tempo.
+     *
+     * @param current  A versão do índice quando a compactação foi agendada.
+     * @param snapshot As alterações dessa versão naquele momento.
+     */
+    private void compact(State current, ChangeView snapshot) {
+        Segment base;
+        try {
+            base = Segment.compact(current.base, snapshot);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            System.err.println("Falha ao compactar o índice de usuários: " + e.getMessage());
+            synchronized (writeLock) {
+                compacting = false;
+            }
+            return;
+        }
+        synchronized (writeLock) {
+            compacting = false;
+            if (state != current) {
+                return;
+            }
+            AVLTree<byte[], Change> changes = newChanges();
+            List<Change> live = new ArrayList<>(current.changes.size());
+            current.changes.forEach(live::add);
+
+            // Reaplica sobre o novo segmento as alterações que diferem da cópia compactada. Uma chave
+            // que só está na cópia saiu da árvore por uma remoção de usuário ausente da base antiga.
+            int liveIndex = 0;
+            int snapshotIndex = 0;
+            while (liveIndex < live.size() || snapshotIndex < snapshot.size()) {
+                int cmp = liveIndex == live.size() ? 1
+                        : snapshotIndex == snapshot.size() ? -1
+                        : Arrays.compareUnsigned(live.get(liveIndex).email, snapshot.keys[snapshotIndex]);
+                byte[] key;
+                UserNode user;
+                if (cmp > 0) {
+                    key = snapshot.keys[snapshotIndex++];
+                    user = null;
+                } else {
+                    Change change = live.get(liveIndex++);
+                    key = change.email;
+                    user = change.user;
+                    if (cmp == 0 && snapshot.users[snapshotIndex++] == user) {
+                        continue;
+                    }
+                }
+                boolean inBase = base.indexOf(key) >= 0;
+                if (user != null || inBase) {
+                    changes.insert(key, new Change(key, user, inBase));
+                }
+            }
+            state = new State(base, changes);
+            pendingChanges = changes.size();
+        }
+    }
+
+    /**
+     * Percorre a combinação da base com as alterações em ordem de bytes do email, a partir de uma
+     * posição de cada uma, descartando os primeiros usuários encontrados.
+     *
+     * @param base        O segmento base.
+     * @param changes     As alterações.
+     * @param baseIndex   A posição inicial na base.
+     * @param changeIndex A posição inicial nas alterações, a primeira com email maior ou igual ao da base.
+     * @param skip        O número de usuários a descartar antes de executar a ação.
+     * @param limit       O número máximo de usuários passados à ação.
+     * @param action      A ação executada para cada usuário.
+     */
+    private static void merge(Segment base, ChangeView changes, int baseIndex, int changeIndex, int skip, int limit,
+                              Consumer<? super UserNode> action) {
+        while (limit > 0 && (baseIndex < base.size() || changeIndex < changes.size())) {
+            UserNode next;
+            int cmp = baseIndex == base.size() ? -1
+                    : changeIndex == changes.size() ? 1
+                    : -base.compareEmailAt(baseIndex, changes.keys[changeIndex]);
+            if (cmp <= 0) {
+                if (cmp == 0) {
+                    baseIndex++;
+                }
+                // Remoções não produzem usuário.
+                next = changes.users[changeIndex++];
+            } else {
+                next = base.userAt(baseIndex++);
+            }
+            if (next == null) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            action.accept(next);
+            limit--;
+        }
+    }
+
+    /**
+     * Visão de uma versão do índice: o segmento base e uma cópia das alterações sobre ele.
+     */
+    private static final class Snapshot implements UserIndexView {
+        private final Segment base;
+        private final ChangeView changes;
+
+        Snapshot(Segment base, ChangeView changes) {
+            this.base = base;
+            this.changes = changes;
+        }
+
+        @Override
+        public void forEach(Consumer<? super UserNode> action) {
+            merge(base, changes, 0, 0, 0, Integer.MAX_VALUE, action);
+        }
+
+        @Override
+        public int size() {
+            return base.size() + changes.totalDelta();
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * A posição na base é obtida por busca binária e corrigida pela soma acumulada das alterações.
+         */
+        @Override
+        public int rank(byte[] email) {
+            return base.lowerBound(email) + changes.deltaBelow(email);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * A posição inicial é localizada por busca binária na base, corrigida pelas alterações pendentes.
+         */
+        @Override
+        public void forEachFrom(int index, int limit, Consumer<? super UserNode> action) {
+            if (index < 0 || limit <= 0) {
+                return;
+            }
+            // Maior posição da base cujo registro tem, na visão combinada, posição menor ou igual a index.
+            int low = 0;
+            int high = base.size() - 1;
+            int start = -1;
+            int startRank = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int rank = mid + changes.deltaBelow(base.emailAt(mid));
+                if (rank <= index) {
+                    start = mid;
+                    startRank = rank;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (start < 0) {
+                merge(base, changes, 0, 0, index, limit, action);
+            } else {
+                merge(base, changes, start, changes.lowerBound(base.emailAt(start)), index - startRank, limit, action);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * O sufixo é comparado diretamente com os bytes dos registros da base; só os usuários da
+         * página são materializados.
+         */
+        @Override
+        public int forEachWithEmailSuffix(byte[] suffix, int skip, int limit, boolean countAll,
+                                          Consumer<? super UserNode> action) {
+            int matched = 0;
+            int baseIndex = 0;
+            int changeIndex = 0;
+            while ((countAll || matched - skip < limit) && (baseIndex < base.size() || changeIndex < changes.size())) {
+                int cmp = baseIndex == base.size() ? -1
+                        : changeIndex == changes.size() ? 1
+                        : -base.compareEmailAt(baseIndex, changes.keys[changeIndex]);
+                UserNode user = null;
+                if (cmp > 0) {
+                    if (!base.emailEndsWithIgnoreCase(baseIndex++, suffix)) {
+                        continue;
+                    }
+                    if (matched >= skip && matched - skip < limit) {
+                        user = base.userAt(baseIndex - 1);
+                    }
+                } else {
+                    if (cmp == 0) {
+                        baseIndex++;
+                    }
+                    UserNode changed = changes.users[changeIndex++];
+                    // Remoções não produzem usuário.
+                    if (changed == null || !changed.emailEndsWithIgnoreCase(suffix)) {
+                        continue;
+                    }
+                    user = changed;
+                }
+                if (matched >= skip && matched - skip < limit) {
+                    action.accept(user);
+                }
+                matched++;
+            }
+            return matched;
+        }
+    }
+
+    /**
+     * Cria a árvore de alterações, ordenada como a base.
+     *
+     * @return A árvore vazia.
+     */
+    private static AVLTree<byte[], Change> newChanges() {
+        return new AVLTree<>(Arrays::compareUnsigned);
+    }
+
+    /**
+     * Cópia ordenada das alterações pendentes, com a soma acumulada da variação de tamanho que elas
+     * causam, usada pelas consultas por posição.
+     */
+    private static final class ChangeView {
+        private final byte[][] keys;
+        private final UserNode[] users;
+
+        // deltaBefore[i] é a soma de sizeDelta() das alterações nas posições 0 a i - 1.
+        private final int[] deltaBefore;
+
+        ChangeView(AVLTree<byte[], Change> changes) {
+            List<Change> list = new ArrayList<>(changes.size());
+            changes.forEach(list::add);
+            keys = new byte[list.size()][];
+            users = new UserNode[list.size()];
+            deltaBefore = new int[list.size() + 1];
+            for (int i = 0; i < list.size(); i++) {
+                Change change = list.get(i);
+                keys[i] = change.email;
+                users[i] = change.user;
+                deltaBefore[i + 1] = deltaBefore[i] + change.sizeDelta();
+            }
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        int totalDelta() {
+            return deltaBefore[keys.length];
+        }
+
+        /**
+         * Retorna a primeira posição cujo email é maior ou igual à chave.
+         *
+         * @param key Os bytes da chave.
+         * @return A posição, ou o número de alterações se todas forem menores.
+         */
+        int lowerBound(byte[] key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (Arrays.compareUnsigned(keys[mid], key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Retorna a variação de tamanho causada pelas alterações com email menor que a chave.
+         *
+         * @param key Os bytes da chave.
+         * @return A soma das variações.
+         */
+        int deltaBelow(byte[] key) {
+            return deltaBefore[lowerBound(key)];
+        }
+    }
+
+    /**
+     * Segmento imutável de registros de usuário em buffers diretos, ordenados pelos bytes do email.
+     * Cada registro contém o id (8 bytes) e, para email, hash da senha e nome, o tamanho (2 bytes sem
+     * sinal, 0xFFFF para nulo) seguido dos bytes UTF-8. A tabela de posições guarda, para cada registro,
+     * o bloco nos bits altos e a posição dentro do bloco nos 30 bits baixos.
+     */
+    private static final class Segment {
+        private static final int POSITION_BITS = 30;
+        private static final int MAX_CHUNK_SIZE = 1 << POSITION_BITS;
+        private static final int POSITION_MASK = MAX_CHUNK_SIZE - 1;
+        private static final int NULL_LENGTH = 0xFFFF;
+
+        private final ByteBuffer[] chunks;
+        private final ByteBuffer positions;
+        private final int size;
+
+        private Segment(ByteBuffer[] chunks, ByteBuffer positions, int size) {
+            this.chunks = chunks;
+            this.positions = positions;
+            this.size = size;
+        }
+
+        /**
+         * Constrói um segmento a partir de usuários já ordenados pelos bytes do email.
+         *
+         * @param users Os usuários ordenados.
+         * @return O segmento.
+         * @throws IllegalArgumentException Se algum campo exceder 65534 bytes em UTF-8.
+         */
+        static Segment build(List<UserNode> users) {
+            Writer writer = new Writer();
+            users.forEach(writer::append);
+            return writer.finish();
+        }
+
+        /**
+         * Constrói um segmento com a combinação de uma base e suas alterações. Os registros mantidos
+         * da base são copiados byte a byte, sem criar nós de usuário.
+         *
+         * @param base    O segmento base.
+         * @param changes As alterações sobre a base.
+         * @return O segmento combinado.
+         * @throws IllegalArgumentException Se algum campo alterado exceder 65534 bytes em UTF-8.
+         */
+        static Segment compact(Segment base, ChangeView changes) {
+            Writer writer = new Writer();
+            walk(base, changes, index -> base.copyRecordTo(index, writer.next(base.recordSizeAt(index))),
+                    user -> putUser(writer.next(recordSize(user)), user));
+            return writer.finish();
+        }
+
+        /**
+         * Percorre a combinação de uma base com suas alterações em ordem de bytes do email.
+         *
+         * @param base        O segmento base.
+         * @param changes     As alterações.
+         * @param baseRecord  Ação executada com a posição de cada registro mantido da base.
+         * @param changedUser Ação executada com cada usuário incluído ou substituído pelas alterações.
+         */
+        private static void walk(Segment base, ChangeView changes, IntConsumer baseRecord, Consumer<UserNode> changedUser) {
+            int baseIndex = 0;
+            int changeIndex = 0;
+            while (baseIndex < base.size() || changeIndex < changes.size()) {
+                int cmp = baseIndex == base.size() ? -1
+                        : changeIndex == changes.size() ? 1
+                        : -base.compareEmailAt(baseIndex, changes.keys[changeIndex]);
+                if (cmp > 0) {
+                    baseRecord.accept(baseIndex++);
+                    continue;
+                }
+                if (cmp == 0) {
+                    baseIndex++;
+                }
+                // Remoções não produzem usuário.
+                UserNode user = changes.users[changeIndex++];
+                if (user != null) {
+                    changedUser.accept(user);
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        long allocatedBytes() {
+            long total = positions.capacity();
+            for (ByteBuffer chunk : chunks) {
+                total += chunk.capacity();
+            }
+            return total;
+        }
+
+        /**
+         * Busca um usuário pelos bytes do email.
+         *
+         * @param email Os bytes UTF-8 do email.
+         * @return O nó do usuário, ou null se não encontrado.
+         */
+        UserNode find(byte[] email) {
+            int index = indexOf(email);
+            return index < 0 ? null : userAt(index);
+        }
+
+        /**
+         * Busca binária pela posição de um email na tabela.
+         *
+         * @param email Os bytes UTF-8 do email.
+         * @return A posição do registro, ou -1 se não encontrado.
+         */
+        int indexOf(byte[] email) {
+            int index = lowerBound(email);
+            return index < size && compareEmailAt(index, email) == 0 ? index : -1;
+        }
+
+        /**
+         * Busca binária pela primeira posição cujo email é maior ou igual à chave.
+         *
+         * @param email Os bytes da chave.
+         * @return A posição, ou o número de registros se todos forem menores.
+         */
+        int lowerBound(byte[] email) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareEmailAt(mid, email) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Compara o email de um registro com uma chave, sem copiar os bytes do registro.
+         *
+         * @param index A posição do registro.
+         * @param email Os bytes UTF-8 da chave.
+         * @return Negativo, zero ou positivo conforme o email do registro seja menor, igual ou maior que a chave.
+         */
+        private int compareEmailAt(int index, byte[] email) {
+            long position = positions.getLong(index * Long.BYTES);
+            ByteBuffer buffer = chunks[(int) (position >>> POSITION_BITS)];
+            int offset = (int) (position & POSITION_MASK) + Long.BYTES;
+            int length = Short.toUnsignedInt(buffer.getShort(offset));
+            offset += Short.BYTES;
+            int common = Math.min(length, email.length);
+            for (int i = 0; i < common; i++) {
+                int cmp = Byte.toUnsignedInt(buffer.get(offset + i)) - Byte.toUnsignedInt(email[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return length - email.length;
+        }
+
+        /**
+         * Verifica se o email de um registro termina com um sufixo, ignorando maiúsculas e
+         * minúsculas ASCII, sem copiar os bytes do registro.
+         *
+         * @param index  A posição do registro.
+         * @param suffix Os bytes UTF-8 do sufixo.
+         * @return true se o email terminar com o sufixo, false caso contrário.
+         */
+        boolean emailEndsWithIgnoreCase(int index, byte[] suffix) {
+            long position = positions.getLong(index * Long.BYTES);
+            ByteBuffer buffer = chunks[(int) (position >>> POSITION_BITS)];
+            int offset = (int) (position & POSITION_MASK) + Long.BYTES;
+            int length = Short.toUnsignedInt(buffer.getShort(offset));
+            if (length < suffix.length) {
+                return false;
+            }
+            offset += Short.BYTES + length - suffix.length;
+            for (int i = 0; i < suffix.length; i++) {
+                if (!UserNode.equalsIgnoreAsciiCase(buffer.get(offset + i), suffix[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Obtém os bytes do email de um registro.
+         *
+         * @param index A posição do registro.
+         * @return Os bytes UTF-8 do email.
+         */
+        byte[] emailAt(int index) {
+            long position = positions.getLong(index * Long.BYTES);
+            ByteBuffer buffer = chunks[(int) (position >>> POSITION_BITS)];
+            int offset = (int) (position & POSITION_MASK) + Long.BYTES;
+            byte[] email = new byte[Short.toUnsignedInt(buffer.getShort(offset))];
+            buffer.get(offset + Short.BYTES, email);
+            return email;
+        }
+
+        /**
+         * Materializa o nó de usuário de um registro.
+         *
+         * @param index A posição do registro.
+         * @return O nó do usuário.
+         */
+        UserNode userAt(int index) {
+            long position = positions.getLong(index * Long.BYTES);
+            ByteBuffer buffer = chunks[(int) (position >>> POSITION_BITS)].duplicate();
+            buffer.position((int) (position & POSITION_MASK));
+            long id = buffer.getLong();
+            byte[] email = getBytes(buffer);
+            byte[] passwordHash = getBytes(buffer);
+            byte[] name = getBytes(buffer);
+            return new UserNode(email, passwordHash, name, id);
+        }
+
+        /**
+         * Calcula o tamanho de um registro a partir dos tamanhos gravados nele.
+         *
+         * @param index A posição do registro.
+         * @return O número de bytes do registro.
+         */
+        int recordSizeAt(int index) {
+            long position = positions.getLong(index * Long.BYTES);
+            ByteBuffer buffer = chunks[(int) (position >>> POSITION_BITS)];
+            int start = (int) (position & POSITION_MASK);
+            int offset = start + Long.BYTES;
+            for (int field = 0; field < 3; field++) {
+                int length = Short.toUnsignedInt(buffer.getShort(offset));
+                offset += Short.BYTES + (length == NULL_LENGTH ? 0 : length);
+            }
+            return offset - start;
+        }
+
+        /**
+         * Copia os bytes de um registro para a posição atual de um buffer, avançando-a.
+         *
+         * @param index  A posição do registro.
+         * @param target O buffer de destino, com espaço para o registro.
+         */
+        void copyRecordTo(int index, ByteBuffer target) {
+            long position = positions.getLong(index * Long.BYTES);
+            int size = recordSizeAt(index);
+            target.put(target.position(), chunks[(int) (position >>> POSITION_BITS)], (int) (position & POSITION_MASK), size);
+            target.position(target.position() + size);
+        }
+
+        private static void putUser(ByteBuffer buffer, UserNode user) {
+            buffer.putLong(user.getId());
+            putBytes(buffer, user.getEmailBytes());
+            putBytes(buffer, user.getPasswordHashBytes());
+            putBytes(buffer, user.getNameBytes());
+        }
+
+        private static int recordSize(UserNode user) {
+            return Long.BYTES + fieldSize(user.getEmailBytes()) + fieldSize(user.getPasswordHashBytes()) + fieldSize(user.getNameBytes());
+        }
+
+        private static int fieldSize(byte[] value) {
+            if (value == null) {
+                return Short.BYTES;
+            }
+            if (value.length >= NULL_LENGTH) {
+                throw new IllegalArgumentException("Campo de usuário excede o tamanho máximo de " + (NULL_LENGTH - 1) + " bytes.");
+            }
+            return Short.BYTES + value.length;
+        }
+
+        private static void putBytes(ByteBuffer buffer, byte[] value) {
+            if (value == null) {
+                buffer.putShort((short) NULL_LENGTH);
+                return;
+            }
+            buffer.putShort((short) value.length);
+            buffer.put(value);
+        }
+
+        private static byte[] getBytes(ByteBuffer buffer) {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            if (length == NULL_LENGTH) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Compara os emails de dois registros, sem copiar os bytes.
+         *
+         * @param first  A posição do primeiro registro.
+         * @param second A posição do segundo registro.
+         * @return Negativo, zero ou positivo conforme o primeiro email seja menor, igual ou maior que o segundo.
+         */
+        private int compareEmails(int first, int second) {
+            long firstPosition = positions.getLong(first * Long.BYTES);
+            long secondPosition = positions.getLong(second * Long.BYTES);
+            ByteBuffer firstBuffer = chunks[(int) (firstPosition >>> POSITION_BITS)];
+            ByteBuffer secondBuffer = chunks[(int) (secondPosition >>> POSITION_BITS)];
+            int firstOffset = (int) (firstPosition & POSITION_MASK) + Long.BYTES;
+            int secondOffset = (int) (secondPosition & POSITION_MASK) + Long.BYTES;
+            int firstLength = Short.toUnsignedInt(firstBuffer.getShort(firstOffset));
+            int secondLength = Short.toUnsignedInt(secondBuffer.getShort(secondOffset));
+            firstOffset += Short.BYTES;
+            secondOffset += Short.BYTES;
+            int common = Math.min(firstLength, secondLength);
+            for (int i = 0; i < common; i++) {
+                int cmp = Byte.toUnsignedInt(firstBuffer.get(firstOffset + i)) - Byte.toUnsignedInt(secondBuffer.get(secondOffset + i));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return firstLength - secondLength;
+        }
+
+        /**
+         * Ordena a tabela de posições pelos bytes do email, no próprio buffer direto (heapsort, sem
+         * memória auxiliar). Só pode ser chamado antes de o segmento ser publicado.
+         */
+        private void sortByEmail() {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i, size);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                swapPositions(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int index, int end) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && compareEmails(child, child + 1) < 0) {
+                    child++;
+                }
+                if (compareEmails(index, child) >= 0) {
+                    return;
+                }
+                swapPositions(index, child);
+                index = child;
+            }
+        }
+
+        private void swapPositions(int first, int second) {
+            long position = positions.getLong(first * Long.BYTES);
+            positions.putLong(first * Long.BYTES, positions.getLong(second * Long.BYTES));
+            positions.putLong(second * Long.BYTES, position);
+        }
+
+        /**
+         * Grava registros em um novo segmento em uma única passagem, na ordem em que são recebidos.
+         * Os blocos são alocados sob demanda, dobrando de tamanho até 1 GiB, sem que nenhum registro
+         * atravesse dois blocos; a tabela de posições cresce da mesma forma. Ao final, o último bloco
+         * e a tabela são reduzidos ao tamanho usado.
+         */
+        static final class Writer {
+            private static final int INITIAL_CHUNK_SIZE = 1 << 16;
+            private static final int INITIAL_POSITIONS = 1 << 10;
+
+            private final List<ByteBuffer> chunks = new ArrayList<>();
+            private ByteBuffer chunk;
+            private ByteBuffer positions = ByteBuffer.allocateDirect(INITIAL_POSITIONS * Long.BYTES);
+            private int size;
+
+            // Email do último usuário recebido por append e se todos chegaram em ordem estritamente crescente.
+            private byte[] lastEmail;
+            private boolean sorted = true;
+
+            /**
+             * Reserva a posição do próximo registro.
+             *
+             * @param recordSize O tamanho do registro.
+             * @return O bloco onde o registro deve ser gravado, na posição do registro.
+             */
+            ByteBuffer next(int recordSize) {
+                if (chunk == null || chunk.remaining() < recordSize) {
+                    int capacity = chunk == null ? INITIAL_CHUNK_SIZE : (int) Math.min(MAX_CHUNK_SIZE, 2L * chunk.capacity());
+                    chunk = ByteBuffer.allocateDirect(Math.max(capacity, recordSize));
+                    chunks.add(chunk);
+                }
+                if (positions.capacity() < (size + 1) * Long.BYTES) {
+                    positions = resize(positions, size * Long.BYTES, 2 * positions.capacity());
+                }
+                positions.putLong(size * Long.BYTES, ((long) (chunks.size() - 1) << POSITION_BITS) | chunk.position());
+                size++;
+                return chunk;
+            }
+
+            /**
+             * Grava um usuário, registrando se a ordem de bytes do email foi mantida.
+             *
+             * @param user O usuário.
+             * @throws IllegalArgumentException Se algum campo exceder 65534 bytes em UTF-8.
+             */
+            void append(UserNode user) {
+                byte[] email = user.getEmailBytes();
+                if (lastEmail != null && Arrays.compareUnsigned(lastEmail, email) >= 0) {
+                    sorted = false;
+                }
+                lastEmail = email;
+                putUser(next(recordSize(user)), user);
+            }
+
+            /**
+             * Conclui um segmento cujos registros já foram gravados em ordem de bytes do email.
+             *
+             * @return O segmento.
+             */
+            Segment finish() {
+                if (chunk != null) {
+                    chunks.set(chunks.size() - 1, resize(chunk, chunk.position(), chunk.position()));
+                }
+                return new Segment(chunks.toArray(ByteBuffer[]::new), resize(positions, size * Long.BYTES, size * Long.BYTES), size);
+            }
+
+            /**
+             * Conclui um segmento gravado por {@link #append}, ordenando as posições se os usuários não
+             * chegaram em ordem de bytes do email.
+             *
+             * @return O segmento ordenado.
+             * @throws IllegalArgumentException Se dois usuários tiverem o mesmo email.
+             */
+            Segment finishSortingByEmail() {
+                Segment segment = finish();
+                if (!sorted) {
+                    segment.sortByEmail();
+                    for (int i = 1; i < segment.size(); i++) {
+                        if (segment.compareEmails(i - 1, i) == 0) {
+                            throw new IllegalArgumentException("Email repetido entre os usuários carregados: "
+                                    + new String(segment.emailAt(i), StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+                return segment;
+            }
+
+            /**
+             * Copia o início de um buffer para um novo buffer direto.
+             *
+             * @param buffer   O buffer de origem.
+             * @param length   O número de bytes a copiar.
+             * @param capacity A capacidade do novo buffer.
+             * @return O novo buffer, ou o próprio buffer se já tiver a capacidade pedida.
+             */
+            private static ByteBuffer resize(ByteBuffer buffer, int length, int capacity) {
+                capacity = Math.max(capacity, 1);
+                if (buffer.capacity() == capacity) {
+                    return buffer;
+                }
+                ByteBuffer resized = ByteBuffer.allocateDirect(capacity);
+                resized.put(0, buffer, 0, length);
+                return resized;
+            }
+        }
+    }
+}
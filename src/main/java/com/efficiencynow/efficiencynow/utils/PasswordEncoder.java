@@ -7,18 +7,43 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
  * Classe utilitária para codificação e verificação de senhas.
  */
 public class PasswordEncoder {
-    private static final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+    // Custo padrão do BCrypt (2^10 iterações).
+    public static final int DEFAULT_STRENGTH = 10;
+
+    private static volatile int strength = DEFAULT_STRENGTH;
+    private static volatile BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(DEFAULT_STRENGTH);
+
+    /**
+     * Define o custo do BCrypt usado nos novos hashes.
+     *
+     * @param newStrength O custo (log2 do número de iterações), entre 4 e 31.
+     * @throws IllegalArgumentException Se o custo estiver fora do intervalo permitido.
+     */
+    public static void setStrength(int newStrength) {
+        encoder = new BCryptPasswordEncoder(newStrength);
+        strength = newStrength;
+    }
+
+    /**
+     * Retorna o custo do BCrypt usado nos novos hashes.
+     *
+     * @return O custo configurado.
+     */
+    public static int getStrength() {
+        return strength;
+    }
 
     /**
      * Faz o hash na senha fornecida se ela atender aos critérios de validação.
      *
      * @param password A senha a ser hasheada.
      * @return A senha hasheada.
-     * @throws IllegalArgumentException Se a senha não atender aos critérios de validação.
+     * @throws InvalidPasswordException Se a senha não atender aos critérios de validação.
      */
     public static String encodePassword(String password) {
-        if (!isValidPassword(password)) {
-            throw new InvalidPasswordException("A senha deve conter pelo menos 6 caracteres, uma letra maiúscula, um número e um caractere especial.");
+        PasswordRule violatedRule = validatePassword(password);
+        if (violatedRule != null) {
+            throw new InvalidPasswordException(violatedRule.getMessage());
         }
         return encoder.encode(password);
     }
@@ -35,12 +60,122 @@ public class PasswordEncoder {
     }
 
     /**
-     * Verifica se a senha atende aos critérios de validação.
+     * Gera um novo hash, com o custo configurado, para uma senha que já foi aceita anteriormente.
+     * Os critérios de validação não são reaplicados, pois podem ter mudado desde o cadastro.
+     *
+     * @param password A senha em texto simples.
+     * @return A senha hasheada.
+     */
+    public static String rehashPassword(String password) {
+        return encoder.encode(password);
+    }
+
+    /**
+     * Verifica se um hash foi gerado com um custo diferente do configurado.
+     *
+     * @param encodedPassword A senha hasheada.
+     * @return true se o hash deve ser refeito com o custo atual, false caso contrário.
+     */
+    public static boolean needsRehash(String encodedPassword) {
+        // Formato do BCrypt: $2a$10$<salt e hash>
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        char tens = encodedPassword.charAt(4);
+        char units = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(units)) {
+            return false;
+        }
+        return (tens - '0') * 10 + (units - '0') != strength;
+    }
+
+    /**
+     * Verifica se a senha atende aos critérios de validação: pelo menos 6 caracteres, uma letra maiúscula,
+     * um número e um caractere especial (@$!%*?&), usando apenas letras, números e esses caracteres especiais.
+     * A verificação é feita em uma única passagem pelos caracteres, sem expressões regulares, e portanto
+     * tem custo linear mesmo para entradas longas.
      *
      * @param password A senha a ser validada.
-     * @return true se a senha atender aos critérios, false caso contrário.
+     * @return O primeiro critério não atendido, ou null se a senha for válida.
+     */
+    public static PasswordRule validatePassword(String password) {
+        if (password == null) {
+            return PasswordRule.MIN_LENGTH;
+        }
+
+        boolean hasUppercase = false;
+        boolean hasDigit = false;
+        boolean hasSpecial = false;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                hasUppercase = true;
+            } else if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (isSpecialCharacter(c)) {
+                hasSpecial = true;
+            } else if (c < 'a' || c > 'z') {
+                return PasswordRule.ALLOWED_CHARACTERS;
+            }
+        }
+
+        if (password.length() < 6) {
+            return PasswordRule.MIN_LENGTH;
+        }
+        if (!hasUppercase) {
+            return PasswordRule.UPPERCASE;
+        }
+        if (!hasDigit) {
+            return PasswordRule.DIGIT;
+        }
+        if (!hasSpecial) {
+            return PasswordRule.SPECIAL_CHARACTER;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se um caractere é um dos caracteres especiais aceitos na senha.
+     *
+     * @param c O caractere a ser verificado.
+     * @return true se o caractere for um de @$!%*?&, false caso contrário.
+     */
+    private static boolean isSpecialCharacter(char c) {
+        switch (c) {
+            case '@':
+            case '$':
+            case '!':
+            case '%':
+            case '*':
+            case '?':
+            case '&':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Critérios de validação de senha.
      */
-    private static boolean isValidPassword(String password) {
-        return password.matches("^(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{6,}$");
+    public enum PasswordRule {
+        MIN_LENGTH("A senha deve conter pelo menos 6 caracteres."),
+        UPPERCASE("A senha deve conter pelo menos uma letra maiúscula."),
+        DIGIT("A senha deve conter pelo menos um número."),
+        SPECIAL_CHARACTER("A senha deve conter pelo menos um caractere especial (@$!%*?&)."),
+        ALLOWED_CHARACTERS("A senha deve conter apenas letras sem acento, números e os caracteres especiais @$!%*?&.");
+
+        private final String message;
+
+        PasswordRule(String message) {
+            this.message = message;
+        }
+
+        /**
+         * @return A mensagem de erro do critério.
+         */
+        public String getMessage() {
+            return message;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Codifica e verifica tokens de sessão autocontidos, assinados com HMAC-SHA256.
+ * <p>
+ * O token tem o formato {@code payload.assinatura}, ambos em Base64 URL sem preenchimento. O payload
+ * contém o id do usuário, o instante de expiração (em segundos) e o email; ele não é cifrado, apenas
+ * assinado, portanto não deve conter dados sigilosos. A assinatura é comparada em tempo constante.
+ */
+public class SessionTokenCodec {
+
+    /**
+     * Tamanho mínimo do segredo, em bytes: o mesmo do resumo produzido pelo HMAC-SHA256.
+     */
+    public static final int MIN_SECRET_LENGTH = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final int HEADER_LENGTH = Long.BYTES + Long.BYTES;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    // Instâncias de Mac não são seguras para uso concorrente; cada thread mantém a sua.
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * Dados contidos em um token de sessão válido.
+     *
+     * @param id        Identificador da sessão: a assinatura em sua codificação canônica, usada para revogá-la.
+     * @param userId    O id do usuário.
+     * @param email     O email do usuário.
+     * @param expiresAt O instante de expiração, em segundos desde a época.
+     */
+    public record Claims(String id, long userId, String email, long expiresAt) {
+    }
+
+    /**
+     * Construtor do codificador.
+     *
+     * @param secret O segredo usado na assinatura, com pelo menos {@link #MIN_SECRET_LENGTH} bytes.
+     * @throws IllegalArgumentException Se o segredo for curto demais.
+     */
+    public SessionTokenCodec(byte[] secret) {
+        if (secret.length < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("O segredo dos tokens de sessão deve ter pelo menos " + MIN_SECRET_LENGTH + " bytes.");
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Gera um token de sessão assinado.
+     *
+     * @param userId    O id do usuário.
+     * @param email     O email do usuário.
+     * @param expiresAt O instante de expiração, em segundos desde a época.
+     * @return O token de sessão.
+     */
+    public String encode(long userId, String email, long expiresAt) {
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = ByteBuffer.allocate(HEADER_LENGTH + emailBytes.length)
+                .putLong(userId)
+                .putLong(expiresAt)
+                .put(emailBytes)
+                .array();
+        return ENCODER.encodeToString(payload) + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Verifica um token de sessão e extrai seus dados.
+     *
+     * @param token O token de sessão.
+     * @param now   O instante atual, em segundos desde a época.
+     * @return Os dados do token, ou null se o token for malformado, tiver assinatura inválida ou estiver expirado.
+     */
+    public Claims decode(String token, long now) {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            return null;
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, separator));
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length < HEADER_LENGTH) {
+            return null;
+        }
+        byte[] expectedSignature = sign(payload);
+        if (!MessageDigest.isEqual(expectedSignature, signature)) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long userId = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        if (expiresAt <= now) {
+            return null;
+        }
+        String email = new String(payload, HEADER_LENGTH, payload.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+        // O Base64 aceita mais de uma grafia para os mesmos bytes; o id usa sempre a mesma.
+        return new Claims(ENCODER.encodeToString(expectedSignature), userId, email, expiresAt);
+    }
+
+    /**
+     * Calcula a assinatura de um payload.
+     *
+     * @param payload O payload.
+     * @return O HMAC-SHA256 do payload.
+     */
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+
+    /**
+     * Cria uma instância de Mac inicializada com o segredo.
+     *
+     * @return A instância de Mac.
+     */
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 não está disponível.", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Índice em memória dos usuários, indexados pelo email.
+ * As implementações devem permitir buscas concorrentes com escritas e mantêm os usuários na
+ * ordem de {@link UserNode#EMAIL_ORDER}.
+ */
+public interface UserIndex extends UserIndexView {
+
+    /**
+     * Busca um usuário pelo email.
+     *
+     * @param email O email do usuário.
+     * @return O nó do usuário, ou null se não encontrado.
+     */
+    UserNode find(String email);
+
+    /**
+     * Adiciona um usuário ao índice, substituindo o existente com o mesmo email.
+     *
+     * @param userNode O nó do usuário.
+     */
+    void put(UserNode userNode);
+
+    /**
+     * Remove um usuário do índice.
+     *
+     * @param email O email do usuário.
+     */
+    void remove(String email);
+
+    /**
+     * Substitui todo o conteúdo do índice.
+     *
+     * @param userNodes Os nós de usuário, em ordem estritamente crescente de {@link UserNode#EMAIL_ORDER}.
+     * @throws IllegalArgumentException Se os nós não estiverem ordenados.
+     */
+    void loadSorted(List<UserNode> userNodes);
+
+    /**
+     * Substitui todo o conteúdo do índice pelos usuários de uma sequência em qualquer ordem,
+     * consumida uma única vez.
+     *
+     * @param userNodes Os nós de usuário.
+     * @throws IllegalArgumentException Se houver emails repetidos.
+     */
+    void load(Iterator<UserNode> userNodes);
+
+    /**
+     * Retorna uma visão somente leitura da versão atual do índice, que não é afetada por escritas
+     * posteriores, para consultas que combinam várias leituras.
+     *
+     * @return A visão do índice.
+     */
+    UserIndexView snapshot();
+}
@@ -0,0 +1,241 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot binário do índice de usuários, usado para acelerar a inicialização.
+ * <p>
+ * Formato: número mágico, versão, maior id de usuário do snapshot, quantidade de usuários e, para cada
+ * usuário na ordem do índice ({@link UserNode#EMAIL_ORDER}), o id seguido de email, hash da senha e nome
+ * (tamanho e bytes, como guardados no nó, com tamanho -1 para valores nulos). O arquivo termina com o CRC32 de todo o conteúdo anterior.
+ * A escrita é feita em um arquivo temporário movido sobre o anterior, de modo que um snapshot
+ * interrompido nunca substitui um válido; a leitura mapeia o arquivo em memória e decodifica cada usuário
+ * apenas quando ele é percorrido, sem manter a lista inteira na heap.
+ * Como o arquivo contém os hashes de senha, o temporário é criado com permissão apenas para o dono.
+ */
+public final class UserIndexSnapshot {
+
+    private static final int MAGIC = 0x454E5549;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * Conteúdo de um snapshot, percorrido diretamente sobre o arquivo mapeado em memória.
+     * Cada iteração decodifica os usuários novamente, na ordem em que foram gravados.
+     */
+    public static final class Contents implements Iterable<UserNode> {
+        private final long maxUserId;
+        private final int size;
+        private final ByteBuffer records;
+
+        private Contents(long maxUserId, int size, ByteBuffer records) {
+            this.maxUserId = maxUserId;
+            this.size = size;
+            this.records = records;
+        }
+
+        /**
+         * Retorna o maior id de usuário presente no snapshot.
+         *
+         * @return O maior id, ou 0 se o snapshot estiver vazio.
+         */
+        public long maxUserId() {
+            return maxUserId;
+        }
+
+        /**
+         * Retorna o número de usuários do snapshot.
+         *
+         * @return O número de usuários.
+         */
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<UserNode> iterator() {
+            ByteBuffer buffer = records.duplicate();
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public UserNode next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    next++;
+                    long id = buffer.getLong();
+                    byte[] email = readBytes(buffer);
+                    byte[] passwordHash = readBytes(buffer);
+                    byte[] name = readBytes(buffer);
+                    return new UserNode(email, passwordHash, name, id);
+                }
+            };
+        }
+    }
+
+    private UserIndexSnapshot() {
+    }
+
+    /**
+     * Grava um snapshot, percorrendo o índice duas vezes (maior id e registros) sem copiá-lo.
+     *
+     * @param path  O caminho do arquivo.
+     * @param users Uma visão do índice que não mude durante a escrita, como a de {@link UserIndex#snapshot()}.
+     * @throws IOException Se ocorrer um erro de escrita ou se a visão mudar durante a escrita.
+     */
+    public static void write(Path path, UserIndexView users) throws IOException {
+        long[] maxUserId = new long[1];
+        users.forEach(user -> maxUserId[0] = Math.max(maxUserId[0], user.getId()));
+        int count = users.size();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            CRC32 checksum = new CRC32();
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                DataOutputStream content = new DataOutputStream(new CheckedOutputStream(output, checksum));
+                content.writeInt(MAGIC);
+                content.writeInt(VERSION);
+                content.writeLong(maxUserId[0]);
+                content.writeInt(count);
+                int[] written = new int[1];
+                try {
+                    users.forEach(user -> {
+                        writeUser(content, user);
+                        written[0]++;
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                if (written[0] != count) {
+                    throw new IOException("O índice de usuários mudou durante a gravação do snapshot.");
+                }
+                content.flush();
+                output.writeLong(checksum.getValue());
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Lê um snapshot, mapeando o arquivo em memória.
+     *
+     * @param path O caminho do arquivo.
+     * @return O conteúdo do snapshot.
+     * @throws IOException Se ocorrer um erro de leitura ou se o arquivo estiver corrompido ou em outro formato.
+     */
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH + Long.BYTES) {
+                throw new IOException("Snapshot do índice de usuários incompleto: " + path);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot do índice de usuários maior que o suportado: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.slice(0, (int) size - Long.BYTES));
+            if (checksum.getValue() != buffer.getLong((int) size - Long.BYTES)) {
+                throw new IOException("Snapshot do índice de usuários corrompido: " + path);
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Formato de snapshot do índice de usuários não suportado: " + path);
+            }
+
+            long maxUserId = buffer.getLong();
+            int count = buffer.getInt();
+            ByteBuffer records = buffer.slice(HEADER_LENGTH, (int) size - Long.BYTES - HEADER_LENGTH);
+            checkRecords(records.duplicate(), count, path);
+            return new Contents(maxUserId, count, records);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot do índice de usuários inconsistente: " + path, e);
+        }
+    }
+
+    /**
+     * Confere, sem decodificar os usuários, se os registros ocupam exatamente o espaço entre o
+     * cabeçalho e o CRC, para que a iteração posterior não encontre um arquivo inconsistente.
+     *
+     * @param records Os bytes dos registros.
+     * @param count   O número de usuários do cabeçalho.
+     * @param path    O caminho do arquivo, para a mensagem de erro.
+     * @throws IOException Se os registros não corresponderem ao cabeçalho.
+     */
+    private static void checkRecords(ByteBuffer records, int count, Path path) throws IOException {
+        if (count < 0) {
+            throw new IOException("Snapshot do índice de usuários inconsistente: " + path);
+        }
+        for (int i = 0; i < count; i++) {
+            if (records.remaining() < Long.BYTES) {
+                throw new IOException("Snapshot do índice de usuários inconsistente: " + path);
+            }
+            records.position(records.position() + Long.BYTES);
+            for (int field = 0; field < 3; field++) {
+                int length = records.getInt();
+                if (length < -1 || length > records.remaining()) {
+                    throw new IOException("Snapshot do índice de usuários inconsistente: " + path);
+                }
+                records.position(records.position() + Math.max(length, 0));
+            }
+        }
+        if (records.hasRemaining()) {
+            throw new IOException("Snapshot do índice de usuários inconsistente: " + path);
+        }
+    }
+
+    private static void writeUser(DataOutputStream output, UserNode user) {
+        try {
+            output.writeLong(user.getId());
+            writeBytes(output, user.getEmailBytes());
+            writeBytes(output, user.getPasswordHashBytes());
+            writeBytes(output, user.getNameBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
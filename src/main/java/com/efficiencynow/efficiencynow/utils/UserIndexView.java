@@ -0,0 +1,58 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * Consultas de leitura sobre os usuários de um índice, na ordem de {@link UserNode#EMAIL_ORDER}.
+ * Cada chamada enxerga uma versão consistente do índice; para combinar várias consultas sobre a
+ * mesma versão, use {@link UserIndex#snapshot()}.
+ */
+public interface UserIndexView {
+
+    /**
+     * Percorre todos os usuários do índice em ordem de email.
+     *
+     * @param action A ação executada para cada usuário.
+     */
+    void forEach(Consumer<? super UserNode> action);
+
+    /**
+     * Retorna o número de usuários do índice.
+     *
+     * @return O número de usuários.
+     */
+    int size();
+
+    /**
+     * Retorna o número de usuários cujo email precede a chave informada na ordem do índice.
+     * A chave não precisa ser um email existente nem um UTF-8 válido, o que permite usá-la como
+     * limite de intervalos.
+     *
+     * @param email Os bytes da chave.
+     * @return A posição que a chave ocuparia no índice.
+     */
+    int rank(byte[] email);
+
+    /**
+     * Percorre, na ordem do índice, até {@code limit} usuários a partir de uma posição.
+     *
+     * @param index  A posição do primeiro usuário (0 para o primeiro).
+     * @param limit  O número máximo de usuários.
+     * @param action A ação executada para cada usuário.
+     */
+    void forEachFrom(int index, int limit, Consumer<? super UserNode> action);
+
+    /**
+     * Percorre, na ordem do índice, os usuários cujo email termina com um sufixo, ignorando
+     * maiúsculas e minúsculas ASCII. O percurso para assim que a página estiver completa, a menos
+     * que a contagem de todos os usuários com o sufixo seja pedida.
+     *
+     * @param suffix   Os bytes UTF-8 do sufixo.
+     * @param skip     O número de usuários com o sufixo a descartar antes da página.
+     * @param limit    O número máximo de usuários passados à ação.
+     * @param countAll Indica se o percurso deve continuar até o fim para contar todos os usuários.
+     * @param action   A ação executada para cada usuário da página.
+     * @return O número de usuários com o sufixo encontrados; com {@code countAll}, o total.
+     */
+    int forEachWithEmailSuffix(byte[] suffix, int skip, int limit, boolean countAll, Consumer<? super UserNode> action);
+}
@@ -1,53 +1,174 @@
 package com.efficiencynow.efficiencynow.utils;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * Classe que representa um nó de usuário.
+ * <p>
+ * Para reduzir o consumo de memória do índice, os campos de texto são guardados como vetores de bytes:
+ * email e nome em UTF-8 e o hash da senha em Latin-1 (um hash BCrypt ocupa exatamente 60 bytes).
+ * Os nós são imutáveis; o token de sessão não faz parte do nó.
  */
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
 public class UserNode {
+
     /**
-     * Email do usuário.
+     * Ordem dos usuários no índice: comparação sem sinal dos bytes UTF-8 do email.
+     * Coincide com a ordem de {@link String#compareTo} exceto para caracteres fora do plano
+     * multilíngue básico.
      */
-    private String email;
+    public static final Comparator<UserNode> EMAIL_ORDER = (a, b) -> Arrays.compareUnsigned(a.email, b.email);
 
     /**
-     * Hash da senha do usuário.
+     * Email do usuário, em UTF-8.
      */
-    private String passwordHash;
+    private final byte[] email;
 
     /**
-     * Nome do usuário.
+     * Hash da senha do usuário, em Latin-1, ou null.
      */
-    private String name;
+    private final byte[] passwordHash;
 
     /**
-     * ID do usuário.
+     * Nome do usuário, em UTF-8, ou null.
      */
-    private Long id;
+    private final byte[] name;
 
     /**
-     * Token do usuário.
+     * ID do usuário.
      */
-    private String token;
+    private final long id;
 
     /**
      * Construtor para criar um novo nó de usuário.
      *
      * @param email        O email do usuário.
+     * @param passwordHash O hash da senha do usuário.
      * @param name         O nome do usuário.
      * @param id           O ID do usuário.
      */
-    public UserNode(String email, String name, Long id) {
+    public UserNode(String email, String passwordHash, String name, long id) {
+        this(encode(email), passwordHash == null ? null : passwordHash.getBytes(StandardCharsets.ISO_8859_1), encode(name), id);
+    }
+
+    /**
+     * Construtor para criar um novo nó de usuário a partir dos campos já codificados.
+     * Os vetores passam a pertencer ao nó e não devem ser alterados depois.
+     *
+     * @param email        O email do usuário, em UTF-8.
+     * @param passwordHash O hash da senha do usuário, em Latin-1.
+     * @param name         O nome do usuário, em UTF-8.
+     * @param id           O ID do usuário.
+     */
+    public UserNode(byte[] email, byte[] passwordHash, byte[] name, long id) {
         this.email = email;
+        this.passwordHash = passwordHash;
         this.name = name;
         this.id = id;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna o email do usuário.
+     *
+     * @return O email do usuário.
+     */
+    public String getEmail() {
+        return new String(email, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna o hash da senha do usuário.
+     *
+     * @return O hash da senha, ou null se não houver.
+     */
+    public String getPasswordHash() {
+        return passwordHash == null ? null : new String(passwordHash, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Retorna o nome do usuário.
+     *
+     * @return O nome do usuário, ou null se não houver.
+     */
+    public String getName() {
+        return name == null ? null : new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna o ID do usuário.
+     *
+     * @return O ID do usuário.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retorna os bytes UTF-8 do email, usados como chave do índice. O vetor não deve ser alterado.
+     *
+     * @return Os bytes do email.
+     */
+    public byte[] getEmailBytes() {
+        return email;
+    }
+
+    /**
+     * Retorna os bytes Latin-1 do hash da senha. O vetor não deve ser alterado.
+     *
+     * @return Os bytes do hash, ou null se não houver.
+     */
+    public byte[] getPasswordHashBytes() {
+        return passwordHash;
+    }
+
+    /**
+     * Retorna os bytes UTF-8 do nome. O vetor não deve ser alterado.
+     *
+     * @return Os bytes do nome, ou null se não houver.
+     */
+    public byte[] getNameBytes() {
+        return name;
+    }
+
+    /**
+     * Codifica um texto em UTF-8.
+     *
+     * @param value O texto.
+     * @return Os bytes UTF-8, ou null se o texto for nulo.
+     */
+    public static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verifica se o email do usuário termina com um sufixo, ignorando maiúsculas e minúsculas ASCII.
+     *
+     * @param suffix Os bytes UTF-8 do sufixo.
+     * @return true se o email terminar com o sufixo, false caso contrário.
+     */
+    boolean emailEndsWithIgnoreCase(byte[] suffix) {
+        int offset = email.length - suffix.length;
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length; i++) {
+            if (!equalsIgnoreAsciiCase(email[offset + i], suffix[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compara dois bytes UTF-8 ignorando maiúsculas e minúsculas ASCII; bytes não ASCII só são
+     * iguais a si mesmos.
+     *
+     * @param a O primeiro byte.
+     * @param b O segundo byte.
+     * @return true se os bytes forem equivalentes, false caso contrário.
+     */
+    static boolean equalsIgnoreAsciiCase(byte a, byte b) {
+        return a == b || (a >= 0 && b >= 0 && Character.toLowerCase(a) == Character.toLowerCase(b));
+    }
+}
@@ -0,0 +1,134 @@
+package com.efficiencynow.efficiencynow.config;
+
+import com.efficiencynow.efficiencynow.services.AVLUserService;
+import com.efficiencynow.efficiencynow.services.SessionService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class SessionAuthenticationInterceptorTests {
+
+    private final SessionAuthenticationInterceptor interceptor = new SessionAuthenticationInterceptor();
+
+    private final SessionService sessionService = mock(SessionService.class);
+
+    private final AVLUserService avlUserService = mock(AVLUserService.class);
+
+    private final StubController controller = new StubController();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(interceptor, "sessionService", sessionService);
+        ReflectionTestUtils.setField(interceptor, "avlUserService", avlUserService);
+        when(sessionService.getEmail("valid-token")).thenReturn("user@example.com");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addMappedInterceptors(SessionAuthenticationInterceptor.PROTECTED_PATHS, interceptor)
+                .build();
+    }
+
+    @Test
+    void rejectsRequestWithoutSessionBeforeReadingTheBody() throws Exception {
+        mockMvc.perform(post("/lamp-economy/calc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numberOfFluorescentLamps\": 10}"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("Connection", "close"));
+
+        assertEquals(0, controller.calls);
+    }
+
+    @Test
+    void keepsConnectionOpenWhenRejectedRequestHasNoBody() throws Exception {
+        mockMvc.perform(get("/users/profile").cookie(new Cookie("SESSION", "expired-token")))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist("Connection"));
+    }
+
+    @Test
+    void rejectsEncodedAndPathParameterVariantsOfProtectedPaths() throws Exception {
+        for (String path : new String[]{
+                "/lamp-economy;x=1/calc",
+                "/%61c-economy/calc-batch",
+                "/portfolio;a/aggregate",
+                "/users/profile;jsessionid=1",
+                "/users/%61dmin/search"
+        }) {
+            mockMvc.perform(post(new URI(path)).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        assertEquals(0, controller.calls);
+    }
+
+    @Test
+    void exposesAuthenticatedUserAndResolvesUserNodeLazily() throws Exception {
+        mockMvc.perform(post("/ac-economy/calc-monthly-economy")
+                        .cookie(new Cookie("SESSION", "valid-token"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk());
+
+        AuthenticatedUser authenticatedUser = controller.authenticatedUser;
+        assertEquals("user@example.com", authenticatedUser.getEmail());
+        assertEquals("valid-token", authenticatedUser.getSessionToken());
+        verify(avlUserService, never()).findUserByEmail(anyString());
+
+        authenticatedUser.getUserNode();
+        authenticatedUser.getUserNode();
+        verify(avlUserService, times(1)).findUserByEmail("user@example.com");
+    }
+
+    @Test
+    void ignoresPreflightAndUnprotectedPaths() throws Exception {
+        MockHttpServletRequest preflight = new MockHttpServletRequest("OPTIONS", "/lamp-economy/calc");
+        assertTrue(interceptor.preHandle(preflight, new MockHttpServletResponse(), controller));
+
+        mockMvc.perform(post("/users/login").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+        assertEquals(1, controller.calls);
+    }
+
+    /**
+     * Controlador com os mesmos caminhos dos endpoints reais, que registra as chamadas recebidas.
+     */
+    @RestController
+    static class StubController {
+        private int calls;
+        private AuthenticatedUser authenticatedUser;
+
+        @PostMapping({"/lamp-economy/calc", "/ac-economy/calc-batch", "/portfolio/aggregate", "/users/login",
+                "/users/profile", "/users/admin/search"})
+        public void handle(@RequestBody Map<String, Object> body) {
+            calls++;
+        }
+
+        @GetMapping("/users/profile")
+        public void profile() {
+            calls++;
+        }
+
+        @PostMapping("/ac-economy/calc-monthly-economy")
+        public void authenticated(@RequestAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE) AuthenticatedUser authenticatedUser,
+                                  @RequestBody Map<String, Object> body) {
+            calls++;
+            this.authenticatedUser = authenticatedUser;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.dtos.ACEconomyResultDTO;
+import com.efficiencynow.efficiencynow.utils.MathUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ACEconomyServiceTests {
+
+    private static final int[] BTUS = {7500, 9000, 12000, 18000};
+
+    private final ACEconomyService acEconomyService = new ACEconomyService();
+
+    @Test
+    void bulkConsumptionMatchesScalarConsumption() {
+        Random random = new Random(20241018L);
+        int rows = 200_000;
+        int[] numberOfAirConditioners = new int[rows];
+        int[] btu = new int[rows];
+        double[] temperature = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            numberOfAirConditioners[i] = random.nextInt(1_000);
+            btu[i] = BTUS[random.nextInt(BTUS.length)];
+            temperature[i] = i % 2 == 0 ? 16 + random.nextInt(29) / 2.0 : 16 + random.nextDouble() * 14;
+        }
+
+        double[] output = new double[rows];
+        acEconomyService.calcMonthlyConsumption(numberOfAirConditioners, btu, temperature, output);
+
+        for (int i = 0; i < rows; i++) {
+            assertEquals(acEconomyService.calcMonthlyConsumption(numberOfAirConditioners[i], btu[i], temperature[i]), output[i]);
+        }
+    }
+
+    @Test
+    void adjustmentFactorTableMatchesTheFormula() {
+        // Passos de meio grau (tabelados), valores entre eles e fora da faixa (calculados).
+        for (double temperature = 14; temperature <= 32; temperature += 0.25) {
+            double adjustmentFactor = 1.0;
+            if (temperature < 22) {
+                adjustmentFactor += (22 - temperature) * 0.04;
+            } else if (temperature > 24) {
+                adjustmentFactor += (temperature - 24) * 0.04;
+            }
+            double expected = MathUtils.roundToTwoDecimals(3 * 22.7 * adjustmentFactor * 0.74);
+
+            assertEquals(expected, acEconomyService.calcMonthlyConsumption(3, 12000, temperature), "temperatura " + temperature);
+        }
+    }
+
+    @Test
+    void bulkConsumptionRejectsUnsupportedBTU() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> acEconomyService.calcMonthlyConsumption(new int[]{1, 1}, new int[]{9000, 10000},
+                        new double[]{23, 23}, new double[2]));
+        assertTrue(e.getMessage().contains("posição 1"));
+    }
+
+    @Test
+    void economyWithDefaultInputsMatchesTheSeparateCalculations() {
+        double[] consumptionByBTU = {15.7, 17.1, 22.7, 38.6};
+        for (int numberOfAirConditioners = 1; numberOfAirConditioners <= 20; numberOfAirConditioners++) {
+            for (int b = 0; b < BTUS.length; b++) {
+                for (double temperature = 16; temperature <= 30; temperature += 0.5) {
+                    // Cálculo anterior: consumo atual, consumo ideal e porcentagem em três chamadas.
+                    double current = acEconomyService.calcMonthlyConsumption(numberOfAirConditioners, BTUS[b], temperature);
+                    double ideal = MathUtils.roundToTwoDecimals(numberOfAirConditioners * consumptionByBTU[b] * 0.74);
+                    double percentage = MathUtils.roundToTwoDecimals(((current - ideal) / current) * 100);
+
+                    ACEconomyResultDTO result = acEconomyService.calcMonthlyEconomy(numberOfAirConditioners, BTUS[b], temperature, 1, 0);
+
+                    String row = numberOfAirConditioners + " x " + BTUS[b] + " a " + temperature;
+                    assertEquals(current, result.getCurrentMonthlyCost(), row);
+                    assertEquals(ideal, result.getIdealMonthlyCost(), row);
+                    assertEquals(percentage, result.getMonthlyEconomyPercentage(), row);
+                }
+            }
+        }
+    }
+
+    @Test
+    void economyScalesWithHoursAndCost() {
+        ACEconomyResultDTO reference = acEconomyService.calcMonthlyEconomy(2, 12000, 18, 1, 0.74);
+        ACEconomyResultDTO result = acEconomyService.calcMonthlyEconomy(2, 12000, 18, 8, 1.10);
+
+        assertEquals(MathUtils.roundToTwoDecimals(2 * 22.7 * 8 * 1.16 * 1.10), result.getCurrentMonthlyCost());
+        assertEquals(MathUtils.roundToTwoDecimals(2 * 22.7 * 8 * 1.10), result.getIdealMonthlyCost());
+        assertEquals(reference.getMonthlyEconomyPercentage(), result.getMonthlyEconomyPercentage(), 0.01);
+    }
+
+    @Test
+    void economyFallsBackToReferenceHoursAndAverageCost() {
+        ACEconomyResultDTO reference = acEconomyService.calcMonthlyEconomy(3, 9000, 27, 1, 0.74);
+
+        for (int hoursPerDay : new int[]{0, -5}) {
+            for (double costPerKWh : new double[]{0, -1.5}) {
+                ACEconomyResultDTO result = acEconomyService.calcMonthlyEconomy(3, 9000, 27, hoursPerDay, costPerKWh);
+                assertEquals(reference.getCurrentMonthlyCost(), result.getCurrentMonthlyCost());
+                assertEquals(reference.getIdealMonthlyCost(), result.getIdealMonthlyCost());
+                assertEquals(reference.getMonthlyEconomyPercentage(), result.getMonthlyEconomyPercentage());
+            }
+        }
+        assertEquals(1, acEconomyService.normalizeHoursPerDay(0));
+        assertEquals(6, acEconomyService.normalizeHoursPerDay(6));
+        assertEquals(0.74, acEconomyService.normalizeCostPerKWh(0));
+        assertEquals(0.9, acEconomyService.normalizeCostPerKWh(0.9));
+    }
+
+    @Test
+    void economyIsZeroWhenCurrentCostIsZero() {
+        ACEconomyResultDTO result = acEconomyService.calcMonthlyEconomy(0, 18000, 30, 8, 0.9);
+
+        assertEquals(0.0, result.getCurrentMonthlyCost());
+        assertEquals(0.0, result.getIdealMonthlyCost());
+        assertEquals(0.0, result.getMonthlyEconomyPercentage());
+    }
+}
@@ -0,0 +1,85 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.dtos.ACEconomyResultDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EconomyResultCacheTests {
+
+    private final LampEconomyService lampEconomyService = spy(new LampEconomyService());
+
+    private final ACEconomyService acEconomyService = spy(new ACEconomyService());
+
+    @Test
+    void equivalentLampInventoriesShareOneEntry() {
+        EconomyResultCache cache = newCache(true);
+
+        double first = cache.calculateTotalEconomy(null, 4, null);
+        double second = cache.calculateTotalEconomy(0, 4, 0);
+
+        assertEquals(first, second);
+        assertEquals(1, cacheSize(cache, "lampEconomyCache"));
+        verify(lampEconomyService, times(1)).calculateTotalEconomy(any(Integer.class), any(Integer.class), any(Integer.class));
+        verify(lampEconomyService).calculateTotalEconomy(0, 4, 0);
+    }
+
+    @Test
+    void equivalentAirConditionerInputsShareOneEntry() {
+        EconomyResultCache cache = newCache(true);
+
+        // Horas menores que 1 e custo não positivo equivalem à referência de 1 hora e ao custo médio.
+        ACEconomyResultDTO defaults = cache.calcMonthlyEconomy(2, 9000, 18, 0, 0);
+        ACEconomyResultDTO explicit = cache.calcMonthlyEconomy(2, 9000, 18, 1, 0.74);
+        ACEconomyResultDTO negative = cache.calcMonthlyEconomy(2, 9000, 18, -3, -1);
+
+        assertSameResult(defaults, explicit);
+        assertSameResult(defaults, negative);
+        assertNotSame(defaults, explicit);
+        assertEquals(1, cacheSize(cache, "acEconomyCache"));
+        verify(acEconomyService, times(1)).calcMonthlyEconomy(anyInt(), anyInt(), anyDouble(), anyInt(), anyDouble());
+        verify(acEconomyService).calcMonthlyEconomy(2, 9000, 18, 1, 0.74);
+    }
+
+    @Test
+    void disabledCacheCallsTheServicesEveryTime() {
+        EconomyResultCache cache = newCache(false);
+
+        cache.calculateTotalEconomy(null, 4, null);
+        cache.calculateTotalEconomy(0, 4, 0);
+        cache.calcMonthlyEconomy(2, 9000, 18, 0, 0);
+        cache.calcMonthlyEconomy(2, 9000, 18, 0, 0);
+
+        verify(lampEconomyService).calculateTotalEconomy(null, 4, null);
+        verify(lampEconomyService).calculateTotalEconomy(0, 4, 0);
+        verify(acEconomyService, times(2)).calcMonthlyEconomy(2, 9000, 18, 0, 0);
+    }
+
+    private EconomyResultCache newCache(boolean enabled) {
+        EconomyResultCache cache = new EconomyResultCache();
+        ReflectionTestUtils.setField(cache, "lampEconomyService", lampEconomyService);
+        ReflectionTestUtils.setField(cache, "acEconomyService", acEconomyService);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        cache.setup();
+        return cache;
+    }
+
+    private static void assertSameResult(ACEconomyResultDTO expected, ACEconomyResultDTO actual) {
+        assertEquals(expected.getCurrentMonthlyCost(), actual.getCurrentMonthlyCost());
+        assertEquals(expected.getIdealMonthlyCost(), actual.getIdealMonthlyCost());
+        assertEquals(expected.getMonthlyEconomyPercentage(), actual.getMonthlyEconomyPercentage());
+    }
+
+    private static long cacheSize(EconomyResultCache cache, String field) {
+        Cache<?, ?> caffeine = (Cache<?, ?>) ReflectionTestUtils.getField(cache, field);
+        caffeine.cleanUp();
+        return caffeine.estimatedSize();
+    }
+}
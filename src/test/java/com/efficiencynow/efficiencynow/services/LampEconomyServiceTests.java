@@ -0,0 +1,41 @@
+package com.efficiencynow.efficiencynow.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LampEconomyServiceTests {
+
+    private final LampEconomyService lampEconomyService = new LampEconomyService();
+
+    @Test
+    void bulkCalculationMatchesScalarCalculation() {
+        Random random = new Random(20241018L);
+        int rows = 200_000;
+        int[] fluorescent = new int[rows];
+        int[] incandescent = new int[rows];
+        int[] halogen = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            int limit = i % 2 == 0 ? 10 : 100_000;
+            fluorescent[i] = random.nextInt(limit);
+            incandescent[i] = random.nextInt(limit);
+            halogen[i] = random.nextInt(limit);
+        }
+        fluorescent[0] = incandescent[0] = halogen[0] = 0;
+
+        double[] output = new double[rows];
+        lampEconomyService.calculateTotalEconomy(fluorescent, incandescent, halogen, output);
+
+        for (int i = 0; i < rows; i++) {
+            assertEquals(lampEconomyService.calculateTotalEconomy(fluorescent[i], incandescent[i], halogen[i]), output[i]);
+        }
+    }
+
+    @Test
+    void bulkCalculationRejectsArraysOfDifferentSizes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> lampEconomyService.calculateTotalEconomy(new int[2], new int[2], new int[1], new double[2]));
+    }
+}
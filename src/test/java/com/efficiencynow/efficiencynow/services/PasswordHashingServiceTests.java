@@ -0,0 +1,76 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.Exceptions.Exceptions.ServiceOverloadedException;
+import com.efficiencynow.efficiencynow.utils.PasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTests {
+
+    private final PasswordHashingService passwordHashingService = new PasswordHashingService();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(passwordHashingService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(passwordHashingService, "bcryptStrength", PasswordEncoder.DEFAULT_STRENGTH);
+        passwordHashingService.setup();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordHashingService, "executor");
+        CountDownLatch running = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        // Uma tarefa ocupa a única thread e outras duas enchem a fila.
+        executor.execute(blocked);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        executor.execute(blocked);
+        executor.execute(blocked);
+
+        CompletableFuture<Boolean> result = passwordHashingService.checkPassword("Senha1@", "$2a$10$hash");
+
+        assertTrue(result.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(ServiceOverloadedException.class, e.getCause());
+        assertEquals(1, meterRegistry.get("efficiencynow.password.hashing.rejected").counter().count());
+        assertEquals(2, meterRegistry.get("efficiencynow.password.hashing.queued").gauge().value());
+    }
+
+    @Test
+    void hashesAndChecksPasswordsOnThePool() throws Exception {
+        String hash = passwordHashingService.encodePassword("Senha1@").get(30, TimeUnit.SECONDS);
+
+        assertTrue(passwordHashingService.checkPassword("Senha1@", hash).get(30, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("efficiencynow.password.hashing.rejected").counter().count());
+    }
+}
@@ -0,0 +1,115 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.dtos.ACEconomyDTO;
+import com.efficiencynow.efficiencynow.dtos.LampEconomyDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioBuildingDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioCategoryDTO;
+import com.efficiencynow.efficiencynow.dtos.PortfolioSummaryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioAggregationServiceTests {
+
+    private static final String[] CATEGORIES = {"residencial", "comercial", "industrial"};
+    private static final int[] BTUS = {7500, 9000, 12000, 18000};
+
+    @Test
+    void aggregatesTotalsPercentilesAndCategories() {
+        List<PortfolioBuildingDTO> buildings = List.of(
+                new PortfolioBuildingDTO("residencial", new LampEconomyDTO(10, 0, 0), new ACEconomyDTO(1, 9000, 23, 1, 0)),
+                new PortfolioBuildingDTO("comercial", null, new ACEconomyDTO(2, 12000, 18, 8, 0.9)),
+                new PortfolioBuildingDTO("residencial", new LampEconomyDTO(0, 10, 0), null)
+        );
+
+        PortfolioSummaryDTO summary = aggregate(buildings, 2);
+
+        assertEquals(3, summary.getTotal().getBuildings());
+        assertEquals(20, summary.getTotal().getTotalLamps());
+        assertEquals(67.5, summary.getTotal().getLampEconomyPercentage());
+        assertEquals(List.of("comercial", "residencial"), new ArrayList<>(summary.getCategories().keySet()));
+
+        PortfolioCategoryDTO commercial = summary.getCategories().get("comercial");
+        assertEquals(1, commercial.getBuildings());
+        assertEquals(379.18, commercial.getCurrentMonthlyCost());
+        assertEquals(326.88, commercial.getIdealMonthlyCost());
+        assertEquals(52.3, commercial.getMonthlySavings());
+
+        // Apenas os dois edifícios com ar-condicionado participam dos percentis.
+        assertEquals(0.0, summary.getMonthlySavingsP50());
+        assertEquals(52.3, summary.getMonthlySavingsP90());
+    }
+
+    @Test
+    void resultsDoNotDependOnParallelism() {
+        Random random = new Random(20241018L);
+        List<PortfolioBuildingDTO> buildings = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            LampEconomyDTO lamps = random.nextInt(4) == 0 ? null
+                    : new LampEconomyDTO(random.nextInt(200), random.nextInt(200), random.nextInt(200));
+            ACEconomyDTO airConditioning = random.nextInt(4) == 0 ? null
+                    : new ACEconomyDTO(random.nextInt(20), BTUS[random.nextInt(BTUS.length)],
+                    16 + random.nextInt(29) / 2.0, 1 + random.nextInt(12), random.nextDouble());
+            buildings.add(new PortfolioBuildingDTO(CATEGORIES[random.nextInt(CATEGORIES.length)], lamps, airConditioning));
+        }
+
+        PortfolioSummaryDTO sequential = aggregate(buildings, 1);
+        PortfolioSummaryDTO parallel = aggregate(buildings, 8);
+
+        assertEquals(50_000, parallel.getTotal().getBuildings());
+        assertSameTotals(sequential.getTotal(), parallel.getTotal());
+        for (String category : CATEGORIES) {
+            assertSameTotals(sequential.getCategories().get(category), parallel.getCategories().get(category));
+        }
+        assertEquals(sequential.getMonthlyEconomyPercentage(), parallel.getMonthlyEconomyPercentage());
+        assertEquals(sequential.getMonthlySavingsP50(), parallel.getMonthlySavingsP50());
+        assertEquals(sequential.getMonthlySavingsP90(), parallel.getMonthlySavingsP90());
+        assertEquals(sequential.getMonthlySavingsP99(), parallel.getMonthlySavingsP99());
+    }
+
+    @Test
+    void aggregatesOneCategoryPerBuilding() {
+        // Antes, cada tarefa alocava acumuladores para todas as categorias da carteira.
+        List<PortfolioBuildingDTO> buildings = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            buildings.add(new PortfolioBuildingDTO(String.format("categoria-%05d", i),
+                    new LampEconomyDTO(1, 0, 0), new ACEconomyDTO(1, 9000, 18, 1, 0)));
+        }
+
+        PortfolioSummaryDTO summary = aggregate(buildings, 4);
+
+        assertEquals(20_000, summary.getCategories().size());
+        assertEquals(20_000, summary.getTotal().getBuildings());
+        assertEquals(20_000, summary.getTotal().getTotalLamps());
+        PortfolioCategoryDTO category = summary.getCategories().get("categoria-12345");
+        assertEquals(1, category.getBuildings());
+        assertEquals(summary.getMonthlySavingsP50(), category.getMonthlySavings());
+    }
+
+    private static PortfolioSummaryDTO aggregate(List<PortfolioBuildingDTO> buildings, int parallelism) {
+        PortfolioAggregationService service = new PortfolioAggregationService();
+        ReflectionTestUtils.setField(service, "lampEconomyService", new LampEconomyService());
+        ReflectionTestUtils.setField(service, "acEconomyService", new ACEconomyService());
+        ReflectionTestUtils.setField(service, "parallelism", parallelism);
+        service.setup();
+        try {
+            return service.aggregate(buildings);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static void assertSameTotals(PortfolioCategoryDTO expected, PortfolioCategoryDTO actual) {
+        assertEquals(expected.getBuildings(), actual.getBuildings());
+        assertEquals(expected.getTotalLamps(), actual.getTotalLamps());
+        assertEquals(expected.getLampEconomyPercentage(), actual.getLampEconomyPercentage());
+        assertEquals(expected.getCurrentMonthlyCost(), actual.getCurrentMonthlyCost());
+        assertEquals(expected.getIdealMonthlyCost(), actual.getIdealMonthlyCost());
+        assertEquals(expected.getMonthlySavings(), actual.getMonthlySavings());
+    }
+}
@@ -0,0 +1,133 @@
+package com.efficiencynow.efficiencynow.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testa as sessões em memória com um relógio controlado pelo teste, sem esperas reais.
+ */
+class SessionServiceTests {
+
+    private final SessionService sessionService = new SessionService();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MutableClock clock = new MutableClock();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sessionService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(sessionService, "clock", clock);
+        ReflectionTestUtils.setField(sessionService, "ttlSeconds", 10L);
+        ReflectionTestUtils.setField(sessionService, "maxSize", 3);
+        ReflectionTestUtils.setField(sessionService, "mode", "memory");
+        ReflectionTestUtils.setField(sessionService, "secret", "");
+        sessionService.setup();
+    }
+
+    @Test
+    void lookupAfterExpiryRemovesSession() {
+        String token = sessionService.create(1L, "ana@example.com");
+
+        clock.advance(Duration.ofMillis(9_999));
+        assertEquals("ana@example.com", sessionService.getEmail(token));
+
+        clock.advance(Duration.ofMillis(1));
+        assertNull(sessionService.getEmail(token));
+        assertEquals(0, activeSessions());
+        assertEquals(1, evictions("expired"));
+        assertFalse(sessionService.remove(token));
+    }
+
+    @Test
+    void sweepRemovesOnlyExpiredSessions() {
+        String first = sessionService.create(1L, "ana@example.com");
+        clock.advance(Duration.ofSeconds(5));
+        String second = sessionService.create(2L, "bruno@example.com");
+
+        clock.advance(Duration.ofSeconds(6));
+        sessionService.sweepExpired();
+
+        assertEquals(1, activeSessions());
+        assertEquals(1, evictions("expired"));
+        assertNull(sessionService.getEmail(first));
+        assertEquals("bruno@example.com", sessionService.getEmail(second));
+        assertEquals(1, evictions("expired"));
+    }
+
+    @Test
+    void evictsOldestSessionsAtMaxSize() {
+        String[] tokens = new String[5];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = sessionService.create(i, "usuario" + i + "@example.com");
+            clock.advance(Duration.ofMillis(1));
+        }
+
+        assertEquals(3, activeSessions());
+        assertNull(sessionService.getEmail(tokens[0]));
+        assertNull(sessionService.getEmail(tokens[1]));
+        for (int i = 2; i < tokens.length; i++) {
+            assertEquals("usuario" + i + "@example.com", sessionService.getEmail(tokens[i]));
+        }
+        assertEquals(2, evictions("capacity"));
+        assertEquals(0, evictions("expired"));
+    }
+
+    @Test
+    void logoutDoesNotCountAsEviction() {
+        String first = sessionService.create(1L, "ana@example.com");
+        String second = sessionService.create(2L, "bruno@example.com");
+
+        assertTrue(sessionService.remove(first));
+        clock.advance(Duration.ofSeconds(10));
+        sessionService.sweepExpired();
+
+        assertNull(sessionService.getEmail(second));
+        assertEquals(1, evictions("expired"));
+        assertEquals(0, evictions("capacity"));
+    }
+
+    private double activeSessions() {
+        return meterRegistry.get("efficiencynow.sessions.active").gauge().value();
+    }
+
+    private double evictions(String reason) {
+        return meterRegistry.get("efficiencynow.sessions.evictions").tag("reason", reason).counter().count();
+    }
+
+    /**
+     * Relógio parado que só avança quando o teste pede.
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
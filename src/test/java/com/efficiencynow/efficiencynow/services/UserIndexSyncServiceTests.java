@@ -0,0 +1,199 @@
+package com.efficiencynow.efficiencynow.services;
+
+import com.efficiencynow.efficiencynow.entities.UserChangeEntity;
+import com.efficiencynow.efficiencynow.repositories.UserChangeRepository;
+import com.efficiencynow.efficiencynow.repositories.UserProjection;
+import com.efficiencynow.efficiencynow.repositories.UserRepository;
+import com.efficiencynow.efficiencynow.utils.AVLUserIndex;
+import com.efficiencynow.efficiencynow.utils.UserIndex;
+import com.efficiencynow.efficiencynow.utils.UserNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testa a sincronização contra um banco simulado em memória: a tabela de usuários é um mapa e o
+ * registro de alterações é uma lista, consultados pelos repositórios simulados.
+ */
+class UserIndexSyncServiceTests {
+
+    private final UserIndexSyncService syncService = new UserIndexSyncService();
+
+    private final UserChangeRepository userChangeRepository = mock(UserChangeRepository.class);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final AVLUserService avlUserService = mock(AVLUserService.class);
+
+    private final UserIndex index = new AVLUserIndex();
+
+    private final Map<String, Long> users = new HashMap<>();
+
+    private final List<UserChangeEntity> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(syncService, "userChangeRepository", userChangeRepository);
+        ReflectionTestUtils.setField(syncService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(syncService, "avlUserService", avlUserService);
+        ReflectionTestUtils.setField(syncService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(syncService, "enabled", true);
+        ReflectionTestUtils.setField(syncService, "batchSize", 2);
+        ReflectionTestUtils.setField(syncService, "gapTimeoutMs", 1_000L);
+        syncService.setup();
+
+        when(avlUserService.isReady()).thenReturn(true);
+        when(avlUserService.getLoadStartedAt()).thenReturn(0L);
+        doAnswer(invocation -> {
+            index.put(invocation.getArgument(0));
+            return null;
+        }).when(avlUserService).addUserToAVL(any());
+        doAnswer(invocation -> {
+            index.remove(invocation.getArgument(0));
+            return null;
+        }).when(avlUserService).removeUserFromAVL(anyString());
+
+        when(userChangeRepository.findPageAfterId(anyLong(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return changes.stream()
+                    .filter(change -> change.getId() > after)
+                    .limit(pageable.getPageSize())
+                    .toList();
+        });
+        when(userChangeRepository.findMaxIdChangedBefore(any())).thenAnswer(invocation -> {
+            Instant instant = invocation.getArgument(0);
+            return changes.stream()
+                    .filter(change -> change.getChangedAt().isBefore(instant))
+                    .mapToLong(UserChangeEntity::getId)
+                    .max()
+                    .orElse(0);
+        });
+        when(userRepository.findAllByEmailIn(any())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.stream()
+                    .filter(users::containsKey)
+                    .map(email -> projection(email, users.get(email)))
+                    .toList();
+        });
+    }
+
+    @Test
+    void appliesRegistrationsAndDeletionsFromOtherInstances() {
+        index.put(new UserNode("ana@example.com", "hash", "Ana", 1L));
+        users.put("ana@example.com", 1L);
+
+        register(1, "bia@example.com", 2L);
+        register(2, "caio@example.com", 3L);
+        delete(3, "ana@example.com");
+        register(4, "ana@example.com", 4L);
+        delete(5, "caio@example.com");
+
+        syncService.poll();
+
+        assertEquals(4L, index.find("ana@example.com").getId());
+        assertEquals(2L, index.find("bia@example.com").getId());
+        assertNull(index.find("caio@example.com"));
+        assertEquals(5L, syncService.getWatermark());
+    }
+
+    @Test
+    void doesNotAdvancePastGapUntilItIsFilledOrTimesOut() {
+        register(1, "ana@example.com", 1L);
+        register(3, "caio@example.com", 3L);
+
+        assertFalse(syncService.syncBatch(0));
+        assertEquals(1L, syncService.getWatermark());
+        assertNotNull(index.find("caio@example.com"));
+
+        // A transação da alteração 2 é confirmada depois da 3.
+        register(2, "bia@example.com", 2L);
+        changes.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        syncService.syncBatch(500);
+        assertEquals(3L, syncService.getWatermark());
+        assertNotNull(index.find("bia@example.com"));
+
+        // A alteração 4 nunca é confirmada.
+        register(5, "duda@example.com", 5L);
+        syncService.syncBatch(1_000);
+        assertEquals(3L, syncService.getWatermark());
+        syncService.syncBatch(2_000);
+        assertEquals(5L, syncService.getWatermark());
+    }
+
+    @Test
+    void replaysChangesCommittedAfterTheLoadWithLowerIds() {
+        long loadStart = 100_000;
+        when(avlUserService.getLoadStartedAt()).thenReturn(loadStart);
+
+        // A alteração 1 é antiga; a 3 já estava visível na carga e está no índice.
+        register(1, "ana@example.com", 1L).setChangedAt(Instant.ofEpochMilli(loadStart - 60_000));
+        register(3, "caio@example.com", 3L).setChangedAt(Instant.ofEpochMilli(loadStart - 100));
+        index.put(new UserNode("ana@example.com", "hash", null, 1L));
+        index.put(new UserNode("caio@example.com", "hash", null, 3L));
+
+        // A transação da alteração 2 começou antes da carga, mas só é confirmada depois dela.
+        register(2, "bia@example.com", 2L).setChangedAt(Instant.ofEpochMilli(loadStart - 200));
+        changes.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+
+        syncService.syncBatch(loadStart + 1_000);
+
+        assertEquals(3L, syncService.getWatermark());
+        assertEquals(2L, index.find("bia@example.com").getId());
+    }
+
+    private UserChangeEntity register(long changeId, String email, long userId) {
+        users.put(email, userId);
+        UserChangeEntity change = change(changeId, email);
+        changes.add(change);
+        return change;
+    }
+
+    private void delete(long changeId, String email) {
+        users.remove(email);
+        changes.add(change(changeId, email));
+    }
+
+    private static UserChangeEntity change(long id, String email) {
+        UserChangeEntity change = new UserChangeEntity(email);
+        change.setId(id);
+        return change;
+    }
+
+    private static UserProjection projection(String email, long id) {
+        return new UserProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public String getPassword() {
+                return "hash";
+            }
+
+            @Override
+            public String getName() {
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,236 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AVLTreeTests {
+
+    private static final int THREADS = 8;
+    private static final int KEYS_PER_THREAD = 5_000;
+
+    @Test
+    void insertSearchAndDelete() {
+        AVLTree<String, Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 1_000; i++) {
+            tree.insert(key(i), i);
+        }
+        tree.insert(key(10), -10);
+        for (int i = 0; i < 1_000; i += 2) {
+            tree.delete(key(i));
+        }
+        tree.delete("missing");
+
+        assertNull(tree.search(key(10)));
+        assertEquals(11, tree.search(key(11)));
+        assertNull(tree.search("missing"));
+        assertEquals(500, assertBalanced(tree.root()));
+    }
+
+    @Test
+    void loadSortedBuildsBalancedTree() {
+        AVLTree<String, String> tree = new AVLTree<>();
+        tree.insert("stale", "stale");
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            keys.add(key(i));
+        }
+
+        tree.loadSorted(keys, Function.identity());
+        tree.insert(key(10_000), key(10_000));
+
+        assertNull(tree.search("stale"));
+        for (int i = 0; i <= 10_000; i++) {
+            assertEquals(key(i), tree.search(key(i)));
+        }
+        assertEquals(10_001, assertBalanced(tree.root()));
+    }
+
+    @Test
+    void loadSortedRejectsUnsortedInput() {
+        AVLTree<String, String> tree = new AVLTree<>();
+
+        assertThrows(IllegalArgumentException.class, () -> tree.loadSorted(List.of("b", "a"), Function.identity()));
+        assertThrows(IllegalArgumentException.class, () -> tree.loadSorted(List.of("a", "a"), Function.identity()));
+    }
+
+    @Test
+    void forEachVisitsValuesInKeyOrder() {
+        AVLTree<Integer, Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 1_000; i++) {
+            int key = (i * 7919) % 1_000;
+            tree.insert(key, key);
+        }
+
+        List<Integer> visited = new ArrayList<>();
+        tree.forEach(visited::add);
+
+        assertEquals(1_000, visited.size());
+        for (int i = 0; i < visited.size(); i++) {
+            assertEquals(i, visited.get(i));
+        }
+    }
+
+    @Test
+    void rankAndForEachFromFollowKeyOrder() {
+        AVLTree<Integer, Integer> tree = new AVLTree<>();
+        for (int i = 0; i < 1_000; i++) {
+            int key = (i * 7919) % 1_000;
+            tree.insert(key * 2, key * 2);
+        }
+        tree.delete(10);
+
+        assertEquals(999, tree.size());
+        assertEquals(0, tree.rank(0));
+        assertEquals(5, tree.rank(10));
+        assertEquals(5, tree.rank(11));
+        assertEquals(6, tree.rank(13));
+        assertEquals(999, tree.rank(5_000));
+
+        List<Integer> page = new ArrayList<>();
+        tree.forEachFrom(4, 3, page::add);
+        assertEquals(List.of(8, 12, 14), page);
+
+        page.clear();
+        tree.forEachFrom(997, 10, page::add);
+        assertEquals(List.of(1_996, 1_998), page);
+
+        page.clear();
+        tree.forEachFrom(999, 10, page::add);
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    void byteArrayKeysUseUnsignedComparator() {
+        AVLTree<byte[], String> tree = new AVLTree<>(Arrays::compareUnsigned);
+        for (String email : List.of("zé@example.com", "ana@example.com", "álvaro@example.com")) {
+            tree.insert(email.getBytes(StandardCharsets.UTF_8), email);
+        }
+        tree.delete("ana@example.com".getBytes(StandardCharsets.UTF_8));
+
+        List<String> visited = new ArrayList<>();
+        tree.forEach(visited::add);
+
+        // Bytes não ASCII (>= 0x80) ordenam depois dos ASCII, como na ordem de String.
+        assertEquals(List.of("zé@example.com", "álvaro@example.com"), visited);
+        assertEquals("zé@example.com", tree.search("zé@example.com".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void concurrentInsertsAreNotLost() throws Exception {
+        AVLTree<String, Integer> tree = new AVLTree<>();
+
+        runConcurrently(thread -> {
+            for (int i = thread; i < THREADS * KEYS_PER_THREAD; i += THREADS) {
+                tree.insert(key(i), i);
+            }
+        });
+
+        for (int i = 0; i < THREADS * KEYS_PER_THREAD; i++) {
+            assertEquals(i, tree.search(key(i)));
+        }
+        assertEquals(THREADS * KEYS_PER_THREAD, assertBalanced(tree.root()));
+    }
+
+    @Test
+    void concurrentDeletesDoNotHideOtherKeysFromReaders() throws Exception {
+        AVLTree<String, Integer> tree = new AVLTree<>();
+        int total = THREADS * KEYS_PER_THREAD;
+        for (int i = 0; i < total; i++) {
+            tree.insert(key(i), i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean missingOddKey = new AtomicBoolean(false);
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                for (int i = 1; i < total; i += 2) {
+                    if (tree.search(key(i)) == null) {
+                        missingOddKey.set(true);
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        runConcurrently(thread -> {
+            for (int i = thread * 2; i < total; i += THREADS * 2) {
+                tree.delete(key(i));
+            }
+        });
+        running.set(false);
+        reader.join();
+
+        assertFalse(missingOddKey.get());
+        for (int i = 0; i < total; i++) {
+            assertEquals(i % 2 == 0 ? null : i, tree.search(key(i)));
+        }
+        assertEquals(total / 2, assertBalanced(tree.root()));
+    }
+
+    private static String key(int i) {
+        return String.format("user%08d@efficiencynow.com", i);
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifica ordenação, alturas e balanceamento de uma subárvore.
+     *
+     * @return O número de nós da subárvore.
+     */
+    private static <K extends Comparable<K>, V> int assertBalanced(AVLNode<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+        if (node.left != null) {
+            assertTrue(node.left.key.compareTo(node.key) < 0);
+        }
+        if (node.right != null) {
+            assertTrue(node.right.key.compareTo(node.key) > 0);
+        }
+        int leftHeight = node.left == null ? 0 : node.left.height;
+        int rightHeight = node.right == null ? 0 : node.right.height;
+        assertEquals(Math.max(leftHeight, rightHeight) + 1, node.height);
+        assertEquals((node.left == null ? 0 : node.left.size) + (node.right == null ? 0 : node.right.size) + 1, node.size);
+        assertTrue(Math.abs(leftHeight - rightHeight) <= 1);
+        return assertBalanced(node.left) + assertBalanced(node.right) + 1;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
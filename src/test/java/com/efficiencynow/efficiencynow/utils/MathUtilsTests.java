@@ -0,0 +1,36 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathUtilsTests {
+
+    @Test
+    void roundsHalfUpLikeBigDecimal() {
+        assertEquals(1.01, MathUtils.roundToTwoDecimals(1.005));
+        assertEquals(-1.01, MathUtils.roundToTwoDecimals(-1.005));
+        assertEquals(78.57, MathUtils.roundToTwoDecimals(78.57142857142857));
+        assertEquals(0.0, MathUtils.roundToTwoDecimals(-0.001));
+        assertEquals(0.0, MathUtils.roundToTwoDecimals(-0.0));
+        assertThrows(NumberFormatException.class, () -> MathUtils.roundToTwoDecimals(Double.NaN));
+    }
+
+    @Test
+    void matchesBigDecimalOnRandomInputs() {
+        Random random = new Random(20241018L);
+        for (int i = 0; i < 2_000_000; i++) {
+            double value;
+            switch (i % 4) {
+                case 0 -> value = random.nextDouble() * 100;
+                case 1 -> value = (random.nextInt(2_000_000) - 1_000_000) / 1000.0;
+                case 2 -> value = random.nextInt(10_000) / 100.0 + 0.005;
+                default -> value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 4);
+            }
+
+            assertEquals(MathUtils.roundWithBigDecimal(value), MathUtils.roundToTwoDecimals(value), String.valueOf(value));
+        }
+    }
+}
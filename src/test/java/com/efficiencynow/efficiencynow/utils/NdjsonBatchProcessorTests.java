@@ -0,0 +1,99 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import com.efficiencynow.efficiencynow.dtos.LampEconomyDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NdjsonBatchProcessorTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final NdjsonBatchProcessor<LampEconomyDTO, Integer> processor = new NdjsonBatchProcessor<>(
+            objectMapper,
+            mock(Validator.class),
+            LampEconomyDTO.class,
+            LampEconomyDTO::getNumberOfFluorescentLamps
+    );
+
+    @Test
+    void reportsNullAndNonObjectItemsWithoutAbortingTheBatch() throws Exception {
+        List<JsonNode> lines = process("""
+                {"numberOfFluorescentLamps": 1}
+                null
+                [2]
+                3
+                {"numberOfFluorescentLamps": 4}
+                """);
+
+        assertEquals(6, lines.size());
+        assertEquals(1, lines.get(0).get("result").asInt());
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i, lines.get(i).get("index").asInt());
+            assertEquals("Item inválido", lines.get(i).get("errors").get(0).asText());
+        }
+        assertEquals(4, lines.get(4).get("result").asInt());
+        assertEquals(5, lines.get(5).get("summary").get("processed").asInt());
+        assertEquals(3, lines.get(5).get("summary").get("failed").asInt());
+    }
+
+    @Test
+    void reportsNullItemsInsideJsonArray() throws Exception {
+        List<JsonNode> lines = process("[null, {\"numberOfFluorescentLamps\": 2}]");
+
+        assertEquals("Item inválido", lines.get(0).get("errors").get(0).asText());
+        assertEquals(2, lines.get(1).get("result").asInt());
+        assertEquals(1, lines.get(2).get("summary").get("failed").asInt());
+    }
+
+    @Test
+    void reportsHandlerErrorsWithoutMessage() throws Exception {
+        NdjsonBatchProcessor<LampEconomyDTO, Integer> rejecting = new NdjsonBatchProcessor<>(
+                objectMapper,
+                mock(Validator.class),
+                LampEconomyDTO.class,
+                item -> {
+                    if (item.getNumberOfFluorescentLamps() < 0) {
+                        throw new IllegalArgumentException();
+                    }
+                    return item.getNumberOfFluorescentLamps();
+                }
+        );
+
+        List<JsonNode> lines = process(rejecting, """
+                {"numberOfFluorescentLamps": -1}
+                {"numberOfFluorescentLamps": 2}
+                """);
+
+        assertEquals("Item inválido", lines.get(0).get("errors").get(0).asText());
+        assertEquals(2, lines.get(1).get("result").asInt());
+        assertEquals(1, lines.get(2).get("summary").get("failed").asInt());
+    }
+
+    private List<JsonNode> process(String body) throws Exception {
+        return process(processor, body);
+    }
+
+    private List<JsonNode> process(NdjsonBatchProcessor<LampEconomyDTO, Integer> processor, String body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        processor.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, () -> null);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,290 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserIndexTests {
+
+    @Test
+    void findReturnsLoadedUsers() {
+        OffHeapUserIndex index = new OffHeapUserIndex();
+        index.loadSorted(List.of(
+                new UserNode("ana@example.com", "hash-a", "Ana", 1L),
+                new UserNode("joão@example.com", "hash-j", null, 2L)
+        ));
+
+        UserNode joao = index.find("joão@example.com");
+        assertEquals("hash-j", joao.getPasswordHash());
+        assertNull(joao.getName());
+        assertEquals(2L, joao.getId());
+        assertEquals("Ana", index.find("ana@example.com").getName());
+        assertNull(index.find("bia@example.com"));
+        assertTrue(index.getOffHeapBytes() > 0);
+    }
+
+    @Test
+    void matchesSortedMapUnderRandomChanges() {
+        // Limite baixo para que as compactações ocorram várias vezes durante o teste, na própria thread.
+        OffHeapUserIndex index = new OffHeapUserIndex(16, Runnable::run);
+        TreeMap<String, UserNode> expected = new TreeMap<>();
+        Random random = new Random(42);
+
+        List<UserNode> initial = new ArrayList<>();
+        for (int i = 0; i < 500; i += 2) {
+            initial.add(user(i, i));
+        }
+        index.loadSorted(initial);
+        initial.forEach(user -> expected.put(user.getEmail(), user));
+
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(600);
+            if (random.nextInt(3) == 0) {
+                index.remove(email(key));
+                expected.remove(email(key));
+            } else {
+                UserNode user = user(key, i);
+                index.put(user);
+                expected.put(user.getEmail(), user);
+            }
+            String probe = email(random.nextInt(600));
+            UserNode found = index.find(probe);
+            if (expected.containsKey(probe)) {
+                assertEquals(expected.get(probe).getId(), found.getId());
+            } else {
+                assertNull(found);
+            }
+        }
+
+        List<String> emails = new ArrayList<>();
+        index.forEach(user -> {
+            emails.add(user.getEmail());
+            assertEquals(expected.get(user.getEmail()).getName(), user.getName());
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), emails);
+    }
+
+    @Test
+    void positionalQueriesMatchSortedMapWithPendingChanges() {
+        // Limite alto para que as alterações continuem pendentes sobre a base.
+        OffHeapUserIndex index = new OffHeapUserIndex(1_000_000);
+        TreeMap<String, UserNode> expected = new TreeMap<>();
+        Random random = new Random(7);
+
+        List<UserNode> initial = new ArrayList<>();
+        for (int i = 0; i < 300; i += 3) {
+            initial.add(user(i, i));
+        }
+        index.loadSorted(initial);
+        initial.forEach(user -> expected.put(user.getEmail(), user));
+        for (int i = 0; i < 400; i++) {
+            int key = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                index.remove(email(key));
+                expected.remove(email(key));
+            } else {
+                UserNode user = user(key, 1_000 + i);
+                index.put(user);
+                expected.put(user.getEmail(), user);
+            }
+        }
+
+        List<String> emails = new ArrayList<>(expected.keySet());
+        assertEquals(emails.size(), index.size());
+        for (int key = 0; key <= 300; key++) {
+            String probe = email(key);
+            assertEquals(expected.headMap(probe).size(), index.rank(UserNode.encode(probe)));
+        }
+        for (int start = 0; start <= emails.size(); start += 7) {
+            List<String> page = new ArrayList<>();
+            index.forEachFrom(start, 5, user -> page.add(user.getEmail()));
+            assertEquals(emails.subList(start, Math.min(start + 5, emails.size())), page);
+        }
+    }
+
+    @Test
+    void keepsChangesMadeWhileCompacting() {
+        List<Runnable> compactions = new ArrayList<>();
+        OffHeapUserIndex index = new OffHeapUserIndex(4, compactions::add);
+        TreeMap<String, UserNode> expected = new TreeMap<>();
+        List<UserNode> initial = new ArrayList<>();
+        for (int i = 0; i < 20; i += 2) {
+            initial.add(user(i, i));
+        }
+        index.loadSorted(initial);
+        initial.forEach(user -> expected.put(user.getEmail(), user));
+
+        // Alterações copiadas pela compactação.
+        UserNode kept = user(1, 101);
+        for (UserNode user : List.of(kept, user(3, 103), user(4, 104), user(5, 105))) {
+            index.put(user);
+            expected.put(user.getEmail(), user);
+        }
+        assertEquals(1, compactions.size());
+
+        // Alterações feitas durante a compactação.
+        index.remove(email(3));
+        expected.remove(email(3));
+        index.remove(email(6));
+        expected.remove(email(6));
+        index.put(user(5, 205));
+        expected.put(email(5), user(5, 205));
+        index.put(user(7, 207));
+        expected.put(email(7), user(7, 207));
+        index.put(kept);
+        assertEquals(1, compactions.size());
+        assertMatches(expected, index);
+
+        long bytesBefore = index.getOffHeapBytes();
+        compactions.get(0).run();
+
+        assertTrue(index.getOffHeapBytes() > bytesBefore);
+        assertMatches(expected, index);
+        assertEquals(101L, index.find(email(1)).getId());
+        assertNull(index.find(email(3)));
+        assertNull(index.find(email(6)));
+        assertEquals(205L, index.find(email(5)).getId());
+        assertEquals(207L, index.find(email(7)).getId());
+
+        // Uma nova compactação pode ser agendada depois que a anterior termina.
+        for (int i = 21; i < 25; i++) {
+            index.put(user(i, i));
+            expected.put(email(i), user(i, i));
+        }
+        assertEquals(2, compactions.size());
+        compactions.get(1).run();
+        assertMatches(expected, index);
+    }
+
+    @Test
+    void discardsCompactionOfReplacedIndex() {
+        List<Runnable> compactions = new ArrayList<>();
+        OffHeapUserIndex index = new OffHeapUserIndex(2, compactions::add);
+        index.put(user(1, 1));
+        index.put(user(2, 2));
+
+        index.loadSorted(List.of(user(3, 3)));
+        compactions.get(0).run();
+
+        assertNull(index.find(email(1)));
+        assertEquals(3L, index.find(email(3)).getId());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void suffixQueriesMatchHeapIndexAndStopWhenThePageIsFull() {
+        OffHeapUserIndex offHeap = new OffHeapUserIndex(1_000_000);
+        AVLUserIndex heap = new AVLUserIndex();
+        List<UserNode> initial = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            initial.add(new UserNode(String.format("u%03d@%s", i, i % 3 == 0 ? "Acme.com" : "other.com"), null, null, i));
+        }
+        offHeap.loadSorted(initial);
+        heap.loadSorted(initial);
+        for (UserIndex index : List.of(offHeap, heap)) {
+            index.remove("u003@Acme.com");
+            index.put(new UserNode("u004@acme.COM", null, null, 204));
+            index.put(new UserNode("u100@acme.com", null, null, 300));
+        }
+        byte[] suffix = UserNode.encode("@ACME.com");
+
+        for (UserIndex index : List.of(offHeap, heap)) {
+            List<Long> ids = new ArrayList<>();
+            assertEquals(35, index.forEachWithEmailSuffix(suffix, 0, 1_000, true, user -> ids.add(user.getId())));
+            assertEquals(List.of(0L, 204L, 6L), ids.subList(0, 3));
+            assertEquals(300L, ids.get(ids.size() - 1));
+
+            List<Long> page = new ArrayList<>();
+            assertEquals(4, index.forEachWithEmailSuffix(suffix, 2, 2, false, user -> page.add(user.getId())));
+            assertEquals(List.of(6L, 9L), page);
+            page.clear();
+            assertEquals(35, index.forEachWithEmailSuffix(suffix, 2, 2, true, user -> page.add(user.getId())));
+            assertEquals(List.of(6L, 9L), page);
+        }
+    }
+
+    @Test
+    void snapshotIgnoresLaterChanges() {
+        OffHeapUserIndex index = new OffHeapUserIndex(2, Runnable::run);
+        index.loadSorted(List.of(user(1, 1), user(3, 3)));
+        index.put(user(2, 2));
+
+        UserIndexView snapshot = index.snapshot();
+        index.remove(email(1));
+        index.put(user(4, 4));
+        index.put(user(5, 5));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(2, snapshot.rank(UserNode.encode(email(3))));
+        List<String> emails = new ArrayList<>();
+        snapshot.forEachFrom(1, 5, user -> emails.add(user.getEmail()));
+        assertEquals(List.of(email(2), email(3)), emails);
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void loadSortedReplacesPendingChanges() {
+        OffHeapUserIndex index = new OffHeapUserIndex();
+        index.loadSorted(List.of(user(1, 1)));
+        index.put(user(2, 2));
+        index.remove(email(1));
+
+        index.loadSorted(List.of(user(3, 3)));
+
+        assertNull(index.find(email(1)));
+        assertNull(index.find(email(2)));
+        assertEquals(3L, index.find(email(3)).getId());
+    }
+
+    @Test
+    void loadSortsUsersReceivedOutOfOrder() {
+        // Usuários suficientes para ocupar vários blocos e fazer a tabela de posições crescer.
+        List<UserNode> users = new ArrayList<>();
+        TreeMap<String, UserNode> expected = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            users.add(user(i, i));
+            expected.put(email(i), user(i, i));
+        }
+        Collections.shuffle(users, new Random(7));
+
+        OffHeapUserIndex index = new OffHeapUserIndex();
+        index.load(users.iterator());
+
+        assertMatches(expected, index);
+        assertEquals(4321L, index.find(email(4321)).getId());
+    }
+
+    @Test
+    void loadRejectsRepeatedEmails() {
+        OffHeapUserIndex index = new OffHeapUserIndex();
+        index.loadSorted(List.of(user(1, 1)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.load(List.of(user(3, 3), user(2, 2), user(3, 4)).iterator()));
+        assertEquals(1L, index.find(email(1)).getId());
+    }
+
+    private static void assertMatches(TreeMap<String, UserNode> expected, OffHeapUserIndex index) {
+        List<String> emails = new ArrayList<>();
+        index.forEach(user -> {
+            emails.add(user.getEmail());
+            assertEquals(expected.get(user.getEmail()).getId(), user.getId());
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), emails);
+        assertEquals(expected.size(), index.size());
+    }
+
+        private static UserNode user(int key, long id) {
+        return new UserNode(email(key), "hash-" + id, "Usuário " + id, id);
+    }
+
+    private static String email(int key) {
+        return String.format("usuário%04d@example.com", key);
+    }
+}
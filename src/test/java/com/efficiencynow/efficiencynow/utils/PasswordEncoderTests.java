@@ -0,0 +1,78 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import com.efficiencynow.efficiencynow.utils.PasswordEncoder.PasswordRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderTests {
+
+    private static final Pattern LEGACY_POLICY =
+            Pattern.compile("^(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{6,}$");
+
+    private static final String ALPHABET = "aZ09@$!%*?&#- ç\n";
+
+    @Test
+    void reportsTheViolatedRule() {
+        assertNull(PasswordEncoder.validatePassword("Senha1@"));
+        assertEquals(PasswordRule.MIN_LENGTH, PasswordEncoder.validatePassword("Se1@"));
+        assertEquals(PasswordRule.UPPERCASE, PasswordEncoder.validatePassword("senha1@"));
+        assertEquals(PasswordRule.DIGIT, PasswordEncoder.validatePassword("Senhaa@"));
+        assertEquals(PasswordRule.SPECIAL_CHARACTER, PasswordEncoder.validatePassword("Senha12"));
+        assertEquals(PasswordRule.ALLOWED_CHARACTERS, PasswordEncoder.validatePassword("Senha1@ção"));
+    }
+
+    @Test
+    void matchesTheLegacyRegexPolicy() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder password = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                password.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+
+            String candidate = password.toString();
+            assertEquals(LEGACY_POLICY.matcher(candidate).matches(), PasswordEncoder.validatePassword(candidate) == null,
+                    candidate);
+        }
+    }
+
+    @Test
+    void reportsTheViolatedRuleForLongAdversarialInputs() {
+        // Entradas que levariam o regex antigo a retroceder sobre o milhão de caracteres.
+        String run = "a".repeat(1_000_000);
+
+        assertEquals(PasswordRule.ALLOWED_CHARACTERS, PasswordEncoder.validatePassword(run + "#"));
+        assertEquals(PasswordRule.ALLOWED_CHARACTERS, PasswordEncoder.validatePassword("A1@" + run + "#"));
+        assertEquals(PasswordRule.UPPERCASE, PasswordEncoder.validatePassword(run));
+        assertEquals(PasswordRule.DIGIT, PasswordEncoder.validatePassword("A" + run));
+        assertEquals(PasswordRule.SPECIAL_CHARACTER, PasswordEncoder.validatePassword("A1" + run));
+        assertNull(PasswordEncoder.validatePassword(run + "A1@"));
+    }
+
+    @Test
+    void rehashesHashesWithADifferentCost() {
+        try {
+            PasswordEncoder.setStrength(4);
+            String cheapHash = PasswordEncoder.encodePassword("Senha1@");
+            assertTrue(cheapHash.startsWith("$2a$04$"));
+            assertFalse(PasswordEncoder.needsRehash(cheapHash));
+
+            PasswordEncoder.setStrength(5);
+            assertTrue(PasswordEncoder.needsRehash(cheapHash));
+            assertTrue(PasswordEncoder.checkPassword("Senha1@", cheapHash));
+
+            String rehashed = PasswordEncoder.rehashPassword("Senha1@");
+            assertTrue(rehashed.startsWith("$2a$05$"));
+            assertFalse(PasswordEncoder.needsRehash(rehashed));
+            assertTrue(PasswordEncoder.checkPassword("Senha1@", rehashed));
+            assertFalse(PasswordEncoder.checkPassword("Senha2@", rehashed));
+        } finally {
+            PasswordEncoder.setStrength(PasswordEncoder.DEFAULT_STRENGTH);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTokenCodecTests {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final SessionTokenCodec codec = new SessionTokenCodec(SECRET);
+
+    @Test
+    void decodesTokenItEncoded() {
+        String token = codec.encode(42L, "usuário@example.com", 2_000);
+
+        SessionTokenCodec.Claims claims = codec.decode(token, 1_000);
+
+        assertNotNull(claims);
+        assertEquals(42L, claims.userId());
+        assertEquals("usuário@example.com", claims.email());
+        assertEquals(2_000L, claims.expiresAt());
+        assertEquals(token.substring(token.indexOf('.') + 1), claims.id());
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String token = codec.encode(42L, "user@example.com", 2_000);
+
+        assertNull(codec.decode(token, 2_000));
+    }
+
+    @Test
+    void rejectsTamperedOrForeignTokens() {
+        String token = codec.encode(42L, "user@example.com", 2_000);
+        String forged = codec.encode(42L, "admin@example.com", 2_000);
+        String tamperedPayload = forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.'));
+        String foreign = new SessionTokenCodec("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8))
+                .encode(42L, "user@example.com", 2_000);
+
+        assertNull(codec.decode(tamperedPayload, 1_000));
+        assertNull(codec.decode(foreign, 1_000));
+    }
+
+    @Test
+    void rejectsMalformedTokensWithoutThrowing() {
+        assertNull(codec.decode("", 1_000));
+        assertNull(codec.decode("not-a-token", 1_000));
+        assertNull(codec.decode("a.b", 1_000));
+        assertNull(codec.decode("@@@.###", 1_000));
+        assertNull(codec.decode("550e8400-e29b-41d4-a716-446655440000", 1_000));
+    }
+
+    @Test
+    void rejectsShortSecrets() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionTokenCodec(new byte[16]));
+    }
+}
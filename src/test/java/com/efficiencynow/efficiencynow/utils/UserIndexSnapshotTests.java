@@ -0,0 +1,70 @@
+package com.efficiencynow.efficiencynow.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIndexSnapshotTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path path = directory.resolve("users.snapshot");
+        List<UserNode> users = List.of(
+                new UserNode("ana@example.com", "$2a$10$hash-a", "Ana", 7L),
+                new UserNode("bruno@example.com", "$2a$10$hash-b", null, 3L),
+                new UserNode("joão@example.com", "$2a$10$hash-c", "João", 12L)
+        );
+
+        AVLUserIndex index = new AVLUserIndex();
+        index.loadSorted(users);
+
+        UserIndexSnapshot.write(path, index.snapshot());
+        UserIndexSnapshot.Contents contents = UserIndexSnapshot.read(path);
+
+        assertEquals(12L, contents.maxUserId());
+        assertEquals(3, contents.size());
+        List<UserNode> read = new ArrayList<>();
+        contents.forEach(read::add);
+        assertEquals(3, read.size());
+        for (int i = 0; i < users.size(); i++) {
+            UserNode expected = users.get(i);
+            UserNode actual = read.get(i);
+            assertEquals(expected.getEmail(), actual.getEmail());
+            assertEquals(expected.getPasswordHash(), actual.getPasswordHash());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getId(), actual.getId());
+        }
+    }
+
+    @Test
+    void rejectsCorruptedSnapshot() throws IOException {
+        Path path = directory.resolve("users.snapshot");
+        AVLUserIndex index = new AVLUserIndex();
+        index.loadSorted(List.of(new UserNode("ana@example.com", "$2a$10$hash-a", "Ana", 7L)));
+        UserIndexSnapshot.write(path, index);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> UserIndexSnapshot.read(path));
+    }
+
+    @Test
+    void rejectsTruncatedSnapshot() throws IOException {
+        Path path = directory.resolve("users.snapshot");
+        Files.write(path, new byte[]{1, 2, 3});
+
+        assertThrows(IOException.class, () -> UserIndexSnapshot.read(path));
+    }
+}